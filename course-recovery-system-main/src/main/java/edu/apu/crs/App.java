@@ -1,9 +1,13 @@
 package edu.apu.crs;
 import javax.swing.SwingUtilities;
+import edu.apu.crs.service.DataRepository;
 import edu.apu.crs.usermanagement.LoginPage;
 
 public class App {
     public static void main(String[] args) {
+        // start reading the data files while the user logs in
+        DataRepository.loadSharedAsync();
+
         SwingUtilities.invokeLater(() -> {
             LoginPage login = new LoginPage();
             login.setVisible(true);
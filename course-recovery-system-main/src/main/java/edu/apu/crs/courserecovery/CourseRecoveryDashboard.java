@@ -4,30 +4,51 @@ import edu.apu.crs.models.Student;
 import edu.apu.crs.models.Course;
 import edu.apu.crs.models.Milestone;
 import edu.apu.crs.models.CourseRecoveryPlan;
+import edu.apu.crs.models.Score;
 import edu.apu.crs.service.MasterDataService;
 import edu.apu.crs.service.CourseRecoveryService;
+import edu.apu.crs.service.DataRepository;
 import edu.apu.crs.usermanagement.Data.systemUser;
 import edu.apu.crs.service.EligibilityService;
+import edu.apu.crs.service.LoadProgress;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 public class CourseRecoveryDashboard extends JFrame {
 
     private final systemUser currentUser;
-    private final MasterDataService masterDataService;
-    private final CourseRecoveryService courseRecoveryService;
+    // set on the EDT once the background load has finished (null before that)
+    private DataRepository repository;
+    private MasterDataService masterDataService;
+    private CourseRecoveryService courseRecoveryService;
+    private Consumer<Student> studentListener;
 
     private CardLayout cardLayout;
     private JPanel mainContainer;
 
-    private DefaultTableModel eligibilityModel;
+    // loading status at the bottom of the window
+    private JProgressBar loadProgressBar;
+    private JLabel loadStatusLabel;
+    // controls that need the data, enabled when their part is loaded
+    private final List<JComponent> eligibilityControls = new ArrayList<>();
+    private final List<JComponent> recoveryControls = new ArrayList<>();
+
+    private EligibilityTableModel eligibilityModel;
+    // rows shown while typing in the search box
+    private static final int SEARCH_RESULT_LIMIT = 200;
     private JComboBox<String> eligibilityFilterCombo;
     private JTextField searchField;
 
     private JComboBox<Student> studentCombo;
+    private final RecoveryStudentComboModel recoveryStudentModel = new RecoveryStudentComboModel();
     private JComboBox<Course> courseCombo;
     private JLabel planInfoLabel;
     private JTable milestoneTable;
@@ -36,8 +57,6 @@ public class CourseRecoveryDashboard extends JFrame {
 
     public CourseRecoveryDashboard(systemUser user) {
         this.currentUser = user;
-        this.masterDataService = new MasterDataService();
-        this.courseRecoveryService = new CourseRecoveryService();
 
         setTitle("CRS Dashboard - " + user.getRoleTitle());
         setSize(900, 600);
@@ -54,7 +73,104 @@ public class CourseRecoveryDashboard extends JFrame {
         mainContainer.add(buildUserManagementPanel(), "USER_MANAGE");
 
         add(mainContainer);
+        add(createStatusPanel(), BorderLayout.SOUTH);
         cardLayout.show(mainContainer, "MENU");
+
+        // the window shows right away; the data arrives from the loader thread
+        loadDataInBackground();
+    }
+
+    private JPanel createStatusPanel() {
+        JPanel statusPanel = new JPanel(new BorderLayout(10, 0));
+        statusPanel.setBorder(BorderFactory.createEmptyBorder(2, 8, 2, 8));
+        loadStatusLabel = new JLabel("Loading data...");
+        loadProgressBar = new JProgressBar(0, 100);
+        loadProgressBar.setStringPainted(true);
+        statusPanel.add(loadStatusLabel, BorderLayout.CENTER);
+        statusPanel.add(loadProgressBar, BorderLayout.EAST);
+        return statusPanel;
+    }
+
+    private void showProgress(int percent, String step) {
+        loadProgressBar.setValue(percent);
+        loadStatusLabel.setText(step);
+    }
+
+    /**
+     * Loads the shared repository and both services off the EDT.
+     * The eligibility table fills in as soon as the students are loaded,
+     * the recovery panel once the plans are loaded as well.
+     */
+    private void loadDataInBackground() {
+        for (JComponent c : eligibilityControls) c.setEnabled(false);
+        for (JComponent c : recoveryControls) c.setEnabled(false);
+
+        LoadProgress progress = (percent, step) -> SwingUtilities.invokeLater(() -> showProgress(percent, step));
+        DataRepository.addLoadListener(progress);
+
+        new SwingWorker<Void, Runnable>() {
+            @Override
+            protected Void doInBackground() {
+                // both services share one loaded copy of students / scores / courses
+                DataRepository repo = DataRepository.loadSharedAsync().join();
+                MasterDataService master = new MasterDataService(repo);
+                publish(() -> onStudentsLoaded(repo, master));
+                repo.getSearchIndex(); // built here rather than on the first keystroke
+
+                progress.onProgress(90, "Loading recovery plans...");
+                CourseRecoveryService recovery = new CourseRecoveryService(repo);
+                publish(() -> onRecoveryPlansLoaded(recovery));
+                return null;
+            }
+
+            @Override
+            protected void process(List<Runnable> steps) {
+                for (Runnable step : steps) step.run();
+            }
+
+            @Override
+            protected void done() {
+                DataRepository.removeLoadListener(progress);
+                try {
+                    get();
+                    showProgress(100, "Ready");
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                    loadStatusLabel.setText("Error loading data: " + e.getCause());
+                }
+            }
+        }.execute();
+    }
+
+    private void onStudentsLoaded(DataRepository repo, MasterDataService master) {
+        this.repository = repo;
+        this.masterDataService = master;
+
+        eligibilityModel.setStudents(master.getAllProcessedStudents());
+
+        // score changes (recovery exams, other clients) repaint just that student's row
+        // and move them in / out of the recovery student combo
+        studentListener = s -> SwingUtilities.invokeLater(() -> {
+            eligibilityModel.studentChanged(s);
+            recoveryStudentModel.studentChanged(s);
+        });
+        repo.addStudentListener(studentListener);
+
+        for (JComponent c : eligibilityControls) c.setEnabled(true);
+    }
+
+    private void onRecoveryPlansLoaded(CourseRecoveryService recovery) {
+        this.courseRecoveryService = recovery;
+        loadRecoveryStudents();
+        for (JComponent c : recoveryControls) c.setEnabled(true);
+    }
+
+    @Override
+    public void dispose() {
+        if (repository != null && studentListener != null) {
+            repository.removeStudentListener(studentListener);
+        }
+        super.dispose();
     }
 
     private JPanel createMenuPanel() {
@@ -115,11 +231,11 @@ public class CourseRecoveryDashboard extends JFrame {
         JPanel controlPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 15, 5));
 
         JLabel filterLabel = new JLabel("Filter by Status:");
-        eligibilityFilterCombo = new JComboBox<>(
-                new String[]{"All Students", "Eligible Only", "Needs Recovery Only"}
-        );
+        eligibilityFilterCombo = new JComboBox<>(new String[]{
+                EligibilityTableModel.ALL, EligibilityTableModel.ELIGIBLE, EligibilityTableModel.NEEDS_RECOVERY
+        });
 
-        JLabel searchLabel = new JLabel("Search by Student ID:");
+        JLabel searchLabel = new JLabel("Search (ID, name or email):");
         searchField = new JTextField(10);
         JButton searchBtn = new JButton("Search");
 
@@ -134,66 +250,82 @@ public class CourseRecoveryDashboard extends JFrame {
 
         panel.add(controlPanel, BorderLayout.NORTH);
 
-        eligibilityModel = new DefaultTableModel(
-                new String[]{"Student ID", "Name", "CGPA", "Failed Courses", "Status"}, 0
-        ) {
-            @Override
-            public boolean isCellEditable(int row, int col) {
-                return false;
-            }
-        };
+        // rows are read from the students on demand (empty until the data is loaded)
+        eligibilityModel = new EligibilityTableModel();
 
         JTable table = new JTable(eligibilityModel);
         table.getTableHeader().setReorderingAllowed(false);
         panel.add(new JScrollPane(table), BorderLayout.CENTER);
 
-        filterAndLoadData();
+        eligibilityControls.add(eligibilityFilterCombo);
+        eligibilityControls.add(searchField);
+        eligibilityControls.add(searchBtn);
+        eligibilityControls.add(refreshBtn);
 
         searchBtn.addActionListener(e -> searchStudentData(searchField.getText().trim()));
+        searchField.addActionListener(e -> searchStudentData(searchField.getText().trim()));
+
+        // search as you type: ranked matches from the in-memory index
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                showSearchMatches(searchField.getText().trim());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                showSearchMatches(searchField.getText().trim());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
 
         eligibilityFilterCombo.addActionListener(e -> filterAndLoadData());
 
         refreshBtn.addActionListener(e -> {
             searchField.setText("");
-            filterAndLoadData();
+            refreshInBackground();
         });
 
         return panel;
     }
 
-    private void filterAndLoadData() {
-        eligibilityModel.setRowCount(0);
-        List<Student> allStudents = masterDataService.getAllProcessedStudents();
-        String selectedFilter = (String) eligibilityFilterCombo.getSelectedItem();
-
-        for (Student s : allStudents) {
-            boolean isEligible =
-                    (s.getCurrentCGPA() >= 2.0 && s.getFailedCourseCount() <= 3);
-            String statusText = isEligible ? "Eligible" : "Needs Recovery";
-
-            boolean showStudent = false;
-            switch (selectedFilter) {
-                case "All Students":
-                    showStudent = true;
-                    break;
-                case "Eligible Only":
-                    showStudent = isEligible;
-                    break;
-                case "Needs Recovery Only":
-                    showStudent = !isEligible;
-                    break;
+    /**
+     * Picks up what other clients saved (plans too, once they are loaded) off the EDT:
+     * the reload waits for their file locks, so the window stays responsive while they save.
+     */
+    private void refreshInBackground() {
+        for (JComponent c : eligibilityControls) c.setEnabled(false);
+        CourseRecoveryService recovery = courseRecoveryService;
+
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                if (recovery != null) recovery.reloadChangedFiles();
+                else repository.reloadChangedFiles();
+                return null;
             }
 
-            if (showStudent) {
-                eligibilityModel.addRow(new Object[]{
-                        s.getStudentId(),
-                        s.getStudentName(),
-                        String.format("%.2f", s.getCurrentCGPA()),
-                        s.getFailedCourseCount(),
-                        statusText
-                });
+            @Override
+            protected void done() {
+                for (JComponent c : eligibilityControls) c.setEnabled(true);
+                try {
+                    get();
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(CourseRecoveryDashboard.this, "Error refreshing data: " + e.getCause());
+                }
+                eligibilityModel.refresh();
+                filterAndLoadData();
             }
-        }
+        }.execute();
+    }
+
+    private void filterAndLoadData() {
+        // switches between the precomputed filter lists, no rows are rebuilt
+        eligibilityModel.setFilter((String) eligibilityFilterCombo.getSelectedItem());
     }
 
     private void searchStudentData(String studentId) {
@@ -202,30 +334,16 @@ public class CourseRecoveryDashboard extends JFrame {
             return;
         }
 
-        eligibilityModel.setRowCount(0);
         Student s = masterDataService.findStudentById(studentId);
+        List<Student> matches = s == null
+                ? masterDataService.searchStudents(studentId, SEARCH_RESULT_LIMIT)
+                : java.util.Collections.singletonList(s);
 
-        if (s != null) {
-            boolean isEligible =
-                    (s.getCurrentCGPA() >= 2.0 && s.getFailedCourseCount() <= 3);
-            String statusText = isEligible ? "Eligible" : "Needs Recovery";
-
-            eligibilityModel.addRow(new Object[]{
-                    s.getStudentId(),
-                    s.getStudentName(),
-                    String.format("%.2f", s.getCurrentCGPA()),
-                    s.getFailedCourseCount(),
-                    statusText
-            });
-            eligibilityFilterCombo.setSelectedItem("All Students");
+        if (!matches.isEmpty()) {
+            eligibilityFilterCombo.setSelectedItem(EligibilityTableModel.ALL);
+            eligibilityModel.showMatches(matches);
         } else {
-            eligibilityModel.addRow(new Object[]{
-                    studentId,
-                    "Student Not Found",
-                    "N/A",
-                    "N/A",
-                    "N/A"
-            });
+            eligibilityModel.showNotFound(studentId);
             JOptionPane.showMessageDialog(
                     this,
                     "Student ID '" + studentId + "' was not found.",
@@ -235,6 +353,15 @@ public class CourseRecoveryDashboard extends JFrame {
         }
     }
 
+    private void showSearchMatches(String text) {
+        if (masterDataService == null) return;
+        if (text.isEmpty()) {
+            filterAndLoadData();
+            return;
+        }
+        eligibilityModel.showMatches(masterDataService.searchStudents(text, SEARCH_RESULT_LIMIT));
+    }
+
     // 2. RECOVERY PANEL
     private JPanel buildRecoveryPanel() {
         JPanel panel = new JPanel(new BorderLayout(10, 10));
@@ -242,7 +369,7 @@ public class CourseRecoveryDashboard extends JFrame {
         JPanel northWrapper = new JPanel(new BorderLayout());
         northWrapper.add(createHeaderPanel("Course Recovery Management"), BorderLayout.NORTH);
 
-        studentCombo = new JComboBox<>();
+        studentCombo = new JComboBox<>(recoveryStudentModel);
         courseCombo = new JComboBox<>();
 
         JButton loadBtn = new JButton("Load Plan");
@@ -252,16 +379,14 @@ public class CourseRecoveryDashboard extends JFrame {
         JButton updateMilestoneBtn = new JButton("Update Milestone");
         JButton removeMilestoneBtn = new JButton("Remove Milestone");
 
-        List<Student> processed = masterDataService.getAllProcessedStudents();
-        java.util.List<Student> needRecovery = new java.util.ArrayList<>();
-        for (Student s : processed) {
-            boolean isEligible = (s.getCurrentCGPA() >= 2.0 && s.getFailedCourseCount() <= 3);
-            if (!isEligible) needRecovery.add(s);
-        }
-        needRecovery.sort(java.util.Comparator.comparing(Student::getStudentId));
-
-        studentCombo.removeAllItems();
-        for (Student s : needRecovery) studentCombo.addItem(s);
+        recoveryControls.add(studentCombo);
+        recoveryControls.add(courseCombo);
+        recoveryControls.add(loadBtn);
+        recoveryControls.add(saveBtn);
+        recoveryControls.add(removeRecBtn);
+        recoveryControls.add(addMilestoneBtn);
+        recoveryControls.add(updateMilestoneBtn);
+        recoveryControls.add(removeMilestoneBtn);
 
         studentCombo.setRenderer(new DefaultListCellRenderer() {
             @Override
@@ -352,12 +477,17 @@ public class CourseRecoveryDashboard extends JFrame {
             saveRecoveryEdits();
         });
 
+        return panel;
+    }
+
+    // students needing recovery (maintained, ID-sorted set), filled in once the plans are loaded
+    private void loadRecoveryStudents() {
+        recoveryStudentModel.setStudents(masterDataService.getStudentsNeedingRecovery());
+
         if (studentCombo.getItemCount() > 0) {
             studentCombo.setSelectedIndex(0);
             reloadCoursesForSelectedStudent();
         }
-
-        return panel;
     }
 
     // 3. REPORT PANEL（占位）
@@ -387,7 +517,7 @@ public class CourseRecoveryDashboard extends JFrame {
         currentPlanId = null;
 
         Student selected = (Student) studentCombo.getSelectedItem();
-        if (selected == null) return;
+        if (selected == null || courseRecoveryService == null) return;
 
         List<Course> failedCourses =
                 courseRecoveryService.getFailedCoursesForStudent(selected.getStudentId());
@@ -406,23 +536,59 @@ public class CourseRecoveryDashboard extends JFrame {
             return;
         }
 
-        CourseRecoveryPlan any =
-                courseRecoveryService.getOrCreateRecoveryPlan(s.getStudentId(), c.getCourseId());
-        currentPlanId = any.getPlanId();
+        // the reload, plan ID reservation and attempt history wait on file locks: read them off the EDT
+        for (JComponent comp : recoveryControls) comp.setEnabled(false);
+        planInfoLabel.setText("Loading plan...");
+
+        new SwingWorker<PlanView, Void>() {
+            @Override
+            protected PlanView doInBackground() {
+                courseRecoveryService.reloadChangedFiles(); // another client may have edited this plan
+
+                PlanView view = new PlanView();
+                view.planId = courseRecoveryService.getOrCreateRecoveryPlan(s.getStudentId(), c.getCourseId()).getPlanId();
+                view.attempts = describeAttempts(s.getStudentId(), c.getCourseId());
+                view.entries = courseRecoveryService.getRecoveryPlanEntries(s.getStudentId(), c.getCourseId());
+                view.milestones = courseRecoveryService.getMilestonesForPlan(view.planId, c.getCourseId());
+                return view;
+            }
+
+            @Override
+            protected void done() {
+                for (JComponent comp : recoveryControls) comp.setEnabled(true);
+                try {
+                    showPlan(s, c, get());
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                    planInfoLabel.setText("Error loading plan: " + e.getCause());
+                }
+            }
+        }.execute();
+    }
+
+    // what Load Plan reads in the background
+    private static final class PlanView {
+        String planId;
+        String attempts;
+        List<CourseRecoveryPlan> entries;
+        List<Milestone> milestones;
+    }
+
+    private void showPlan(Student s, Course c, PlanView view) {
+        currentPlanId = view.planId;
 
         planInfoLabel.setText("Plan " + currentPlanId
                 + " | Student: " + s.getStudentId()
-                + " | Course: " + c.getCourseId());
+                + " | Course: " + c.getCourseId()
+                + " | Attempts: " + view.attempts);
 
-        List<CourseRecoveryPlan> entries =
-                courseRecoveryService.getRecoveryPlanEntries(s.getStudentId(), c.getCourseId());
         java.util.Map<Integer, CourseRecoveryPlan> weekMap = new java.util.HashMap<>();
-        for (CourseRecoveryPlan p : entries) {
+        for (CourseRecoveryPlan p : view.entries) {
             weekMap.put(p.getStudyWeek(), p);
         }
 
-        List<Milestone> ms = courseRecoveryService.getMilestonesForPlan(currentPlanId, c.getCourseId());
-        
+        List<Milestone> ms = view.milestones;
+
         milestoneTableModel.setRowCount(0);
 
         for (Milestone m : ms) {
@@ -445,6 +611,19 @@ public class CourseRecoveryDashboard extends JFrame {
         }
     }
 
+    // e.g. "#1 F FAIL, #2 D PASS" (every attempt recorded in the score history)
+    private String describeAttempts(String studentId, String courseId) {
+        List<Score> attempts = courseRecoveryService.getAttemptHistory(studentId, courseId);
+        if (attempts.isEmpty()) return "none recorded";
+
+        StringBuilder sb = new StringBuilder();
+        for (Score a : attempts) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append('#').append(a.getattempt()).append(' ').append(a.getgrade()).append(' ').append(a.getstatus());
+        }
+        return sb.toString();
+    }
+
     private void saveRecoveryEdits() {
         Student s = (Student) studentCombo.getSelectedItem();
         Course c = (Course) courseCombo.getSelectedItem();
@@ -496,6 +675,9 @@ public class CourseRecoveryDashboard extends JFrame {
 
         // ✅ loop 外面才 save（一次就好）
         courseRecoveryService.saveRecoveryPlans();
+
+        // exam results changed the shared Student objects; the repository's student
+        // listener already updated their rows in the eligibility table
         JOptionPane.showMessageDialog(this, "Saved!");
     }
 
@@ -0,0 +1,231 @@
+package edu.apu.crs.courserecovery;
+
+import edu.apu.crs.models.Student;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Eligibility table read straight from the repository's student list.
+// No row objects are copied: JTable only asks for the cells it paints, and the
+// CGPA text is formatted at that point. The two status filters are index arrays
+// built in one pass, so switching filters does not touch the students again.
+// A changed student repaints (or moves in / out of) just its own row.
+//
+// All methods must be called on the EDT.
+
+public class EligibilityTableModel extends AbstractTableModel {
+
+    public static final String ALL = "All Students";
+    public static final String ELIGIBLE = "Eligible Only";
+    public static final String NEEDS_RECOVERY = "Needs Recovery Only";
+
+    private static final String[] COLUMNS = {"Student ID", "Name", "CGPA", "Failed Courses", "Status"};
+    private static final int[] NO_ROWS = new int[0];
+
+    private List<Student> students = Collections.emptyList();
+    private int studentCount = 0;
+    private final Map<Student, Integer> rowOf = new IdentityHashMap<>();
+
+    // verdict of each student when it was last indexed, and the rows per verdict (ascending)
+    private boolean[] eligible = new boolean[0];
+    private int[] eligibleRows = NO_ROWS;
+    private int[] recoveryRows = NO_ROWS;
+
+    private String filter = ALL;
+    private int[] view = null;        // student rows shown, null = every student
+    private boolean searchView = false; // showing a search result instead of the filter
+    private String notFoundId = null;   // search placeholder row
+
+    /**
+     * Shows the given (live) student list; the rows are read from it on demand.
+     */
+    public void setStudents(List<Student> students) {
+        this.students = students;
+        rebuildIndex();
+    }
+
+    /**
+     * Re-reads every student, e.g. after students were added or removed.
+     */
+    public void refresh() {
+        rebuildIndex();
+    }
+
+    public void setFilter(String filter) {
+        this.filter = filter == null ? ALL : filter;
+        this.searchView = false;
+        this.notFoundId = null;
+        this.view = rowsFor(this.filter);
+        fireTableDataChanged();
+    }
+
+    /**
+     * Shows search results in the given (ranked) order.
+     */
+    public void showMatches(List<Student> matches) {
+        int[] rows = new int[matches.size()];
+        int count = 0;
+        for (Student s : matches) {
+            Integer row = rowOf.get(s);
+            if (row != null) rows[count++] = row;
+        }
+        searchView = true;
+        notFoundId = null;
+        view = Arrays.copyOf(rows, count);
+        fireTableDataChanged();
+    }
+
+    /**
+     * Shows a single "Student Not Found" row for the searched ID.
+     */
+    public void showNotFound(String studentId) {
+        searchView = true;
+        notFoundId = studentId;
+        view = NO_ROWS;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Updates the row of one student whose scores changed. If the verdict flipped,
+     * the student also moves between the Eligible / Needs Recovery lists.
+     */
+    public void studentChanged(Student student) {
+        Integer boxed = rowOf.get(student);
+        if (boxed == null) return;
+        int row = boxed;
+
+        boolean now = student.isEligibleToProgress();
+        if (now != eligible[row]) {
+            eligible[row] = now;
+            int removedAt = Arrays.binarySearch(now ? recoveryRows : eligibleRows, row);
+            if (now) {
+                recoveryRows = removeRow(recoveryRows, removedAt);
+                eligibleRows = insertRow(eligibleRows, row);
+            } else {
+                eligibleRows = removeRow(eligibleRows, removedAt);
+                recoveryRows = insertRow(recoveryRows, row);
+            }
+
+            // a status filter is showing: the row enters or leaves it
+            if (!searchView && view != null) {
+                view = rowsFor(filter);
+                if (ELIGIBLE.equals(filter) == now) {
+                    int at = Arrays.binarySearch(view, row);
+                    fireTableRowsInserted(at, at);
+                } else {
+                    fireTableRowsDeleted(removedAt, removedAt);
+                }
+                return;
+            }
+        }
+
+        int viewRow = viewRowOf(row);
+        if (viewRow >= 0) fireTableRowsUpdated(viewRow, viewRow);
+    }
+
+    @Override
+    public int getRowCount() {
+        if (notFoundId != null) return 1;
+        return view == null ? studentCount : view.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int col) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        if (notFoundId != null) {
+            return columnIndex == 0 ? notFoundId : columnIndex == 1 ? "Student Not Found" : "N/A";
+        }
+        Student s = students.get(view == null ? rowIndex : view[rowIndex]);
+        switch (columnIndex) {
+            case 0:
+                return s.getStudentId();
+            case 1:
+                return s.getStudentName();
+            case 2:
+                return String.format("%.2f", s.getCurrentCGPA());
+            case 3:
+                return s.getFailedCourseCount();
+            default:
+                return s.isEligibleToProgress() ? "Eligible" : "Needs Recovery";
+        }
+    }
+
+    // one pass over the students: row lookup + both filter lists
+    private void rebuildIndex() {
+        studentCount = students.size();
+        rowOf.clear();
+        eligible = new boolean[studentCount];
+        int eligibleCount = 0;
+        for (int i = 0; i < studentCount; i++) {
+            Student s = students.get(i);
+            rowOf.put(s, i);
+            eligible[i] = s.isEligibleToProgress();
+            if (eligible[i]) eligibleCount++;
+        }
+
+        eligibleRows = new int[eligibleCount];
+        recoveryRows = new int[studentCount - eligibleCount];
+        int e = 0, r = 0;
+        for (int i = 0; i < studentCount; i++) {
+            if (eligible[i]) eligibleRows[e++] = i;
+            else recoveryRows[r++] = i;
+        }
+
+        setFilter(filter);
+    }
+
+    private int[] rowsFor(String filter) {
+        if (ELIGIBLE.equals(filter)) return eligibleRows;
+        if (NEEDS_RECOVERY.equals(filter)) return recoveryRows;
+        return null;
+    }
+
+    private int viewRowOf(int row) {
+        if (notFoundId != null) return -1;
+        if (view == null) return row;
+        if (searchView) {
+            // ranked, not sorted (and short)
+            for (int i = 0; i < view.length; i++) {
+                if (view[i] == row) return i;
+            }
+            return -1;
+        }
+        int at = Arrays.binarySearch(view, row);
+        return at >= 0 ? at : -1;
+    }
+
+    private static int[] removeRow(int[] rows, int at) {
+        int[] result = new int[rows.length - 1];
+        System.arraycopy(rows, 0, result, 0, at);
+        System.arraycopy(rows, at + 1, result, at, rows.length - at - 1);
+        return result;
+    }
+
+    private static int[] insertRow(int[] rows, int row) {
+        int at = -Arrays.binarySearch(rows, row) - 1;
+        int[] result = new int[rows.length + 1];
+        System.arraycopy(rows, 0, result, 0, at);
+        result[at] = row;
+        System.arraycopy(rows, at, result, at + 1, rows.length - at);
+        return result;
+    }
+
+}
@@ -0,0 +1,75 @@
+package edu.apu.crs.courserecovery;
+
+import edu.apu.crs.models.Student;
+
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+// Student combo of the recovery panel: the students needing recovery, sorted by ID.
+// Filled once from EligibilityService's maintained set; afterwards a student whose
+// verdict changes is inserted or removed on its own, so the combo is never rebuilt.
+// The selected student stays selected even after they leave the list.
+//
+// All methods must be called on the EDT.
+
+public class RecoveryStudentComboModel extends AbstractListModel<Student> implements ComboBoxModel<Student> {
+
+    private static final Comparator<Student> BY_ID = Comparator.comparing(Student::getStudentId);
+
+    private final List<Student> students = new ArrayList<>();
+    private Object selected;
+
+    /**
+     * @param needingRecovery Students sorted by ID, e.g. EligibilityService.getStudentsNeedingRecovery().
+     */
+    public void setStudents(List<Student> needingRecovery) {
+        int oldSize = students.size();
+        students.clear();
+        if (oldSize > 0) fireIntervalRemoved(this, 0, oldSize - 1);
+        students.addAll(needingRecovery);
+        if (!students.isEmpty()) fireIntervalAdded(this, 0, students.size() - 1);
+    }
+
+    /**
+     * Adds or removes the student after their CGPA / failed courses changed.
+     */
+    public void studentChanged(Student student) {
+        int at = Collections.binarySearch(students, student, BY_ID);
+        boolean listed = at >= 0 && students.get(at) == student;
+        if (student.needsRecovery() && !listed) {
+            int insertAt = at >= 0 ? at + 1 : -at - 1;
+            students.add(insertAt, student);
+            fireIntervalAdded(this, insertAt, insertAt);
+        } else if (!student.needsRecovery() && listed) {
+            students.remove(at);
+            fireIntervalRemoved(this, at, at);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return students.size();
+    }
+
+    @Override
+    public Student getElementAt(int index) {
+        return students.get(index);
+    }
+
+    @Override
+    public void setSelectedItem(Object item) {
+        if (item == null ? selected == null : item.equals(selected)) return;
+        selected = item;
+        fireContentsChanged(this, -1, -1);
+    }
+
+    @Override
+    public Object getSelectedItem() {
+        return selected;
+    }
+
+}
@@ -0,0 +1,69 @@
+package edu.apu.crs.dataIO;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+// One data set the services keep in memory and save as a list of changes
+// (scores, recovery plans, custom milestones). A save only hands over the changed
+// entries; how rows and changes are stored is up to the DataStore (snapshot + log
+// file, or indexed database tables). Clients sharing the data read what the others
+// saved with sync().
+//
+// load, sync, append and compact are called while holding lock():
+//   table.withLock(() -> {
+//       table.sync(theirs);  ...apply theirs...
+//       table.append(ours);
+//   });
+
+public interface ChangeTable<T> {
+
+    /**
+     * Blocks until this thread holds the data set's lock (other clients included).
+     * @return Close to release; null if the lock could not be taken (carry on unlocked).
+     */
+    DataFileLock lock();
+
+    /**
+     * Runs work while holding lock() (unlocked if it could not be taken).
+     */
+    default <E extends Exception> void withLock(DataFileLock.Action<E> work) throws E {
+        DataFileLock.withLock(lock(), work);
+    }
+
+    default <R, E extends Exception> R withLock(DataFileLock.Call<R, E> work) throws E {
+        return DataFileLock.withLock(lock(), work);
+    }
+
+    /**
+     * Reads the data set from scratch.
+     * @param changes Receives saved changes not folded into the rows yet, in save order.
+     *                The caller applies them on top of the returned rows.
+     * @return The rows in stored order.
+     */
+    List<T> load(List<T> changes);
+
+    /**
+     * Reads the changes other clients saved since this client's last load, sync or append.
+     * @param changes Receives them in save order.
+     * @return true if another client replaced the rows instead; call load() again.
+     */
+    boolean sync(List<T> changes);
+
+    /**
+     * Saves changes this client made (sync first, so theirs stay ahead of ours).
+     */
+    void append(List<T> changes) throws IOException;
+
+    /**
+     * Number of changes saved since the last compaction.
+     */
+    int changeCount();
+
+    /**
+     * Folds the saved changes into the rows and starts an empty change list.
+     * @param rows Every current row in stored order; all changes must be appended already.
+     */
+    void compact(Collection<T> rows) throws IOException;
+
+}
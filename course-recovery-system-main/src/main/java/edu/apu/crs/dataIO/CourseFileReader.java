@@ -1,38 +1,35 @@
 package edu.apu.crs.dataIO;
 
 import edu.apu.crs.models.Course;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 public class CourseFileReader extends baseDataReader{
 
-    private static final String FILE_NAME = "courseList.txt";
+    static final String FILE_NAME = "courseList.txt";
 
     public static List<Course> readCourses() {
         List<Course> courses = new ArrayList<>();
-        try (BufferedReader br = new CourseFileReader().getReader(FILE_NAME)) {
-            if (br == null) return courses;
+        try (CsvTokenizer csv = new CourseFileReader().openCsv(FILE_NAME)) {
+            if (csv == null) return courses;
 
-            String line;
-            br.readLine(); // Skip header
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                String[] parts = line.split(",");
+            // A header row (if present) fails the number parse below and is skipped
+            while (csv.nextRecord()) {
+                if (csv.isBlankRecord()) continue;
 
                 
-                if (parts.length >= 4) {
-                    try {
-                        String courseId = parts[0].trim();
-                        String courseName = parts[1].trim();
-                        int credits = Integer.parseInt(parts[2].trim());
-                        int semester = Integer.parseInt(parts[3].trim());
-                        
-                        courses.add(new Course(courseId, courseName, credits, semester));
-                    } catch (NumberFormatException e) {
-                        System.err.println("Skipping line with invalid number format: " + line);
+                if (csv.fieldCount() >= 4) {
+                    String courseId = csv.nextId(IdDictionary.COURSES);
+                    String courseName = csv.nextString();
+                    int credits = csv.nextInt();
+                    int semester = csv.nextInt();
+
+                    if (!csv.isRecordValid()) {
+                        System.err.println("Skipping line with invalid number format: " + csv.recordText());
+                        continue;
                     }
+                    courses.add(new Course(courseId, courseName, credits, semester));
                 }
             }
         } catch (IOException e) {
@@ -0,0 +1,384 @@
+package edu.apu.crs.dataIO;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// CSV tokenizer for the data files. The file is read window by window into one
+// reused heap buffer (not memory-mapped: on Windows a mapping lives until GC and keeps
+// SafeFileWriter from replacing the file). Fields are parsed straight from the bytes into int / double / String,
+// so no line String or String[] is created per row. IDs read with nextId()
+// are interned: the same "C003" on every row returns the same String instance.
+// nextId(IdDictionary) goes one step further and returns the application-wide
+// instance from the shared dictionary (the dictionary is only consulted once per
+// distinct ID; repeats are answered from this reader's byte cache).
+//
+// Usage:
+//   while (csv.nextRecord()) {
+//       if (csv.isBlankRecord() || csv.fieldCount() < 9) continue;
+//       String id = csv.nextId(); int attempt = csv.nextInt(); ...
+//       if (!csv.isRecordValid()) { ... skip ... }
+//   }
+
+public class CsvTokenizer implements Closeable {
+
+    // bytes read per window; larger files and regions are read window by window
+    private static final int MAX_WINDOW = 8 << 20;
+
+    private final FileChannel channel;
+    private long regionEnd;
+    private final IdTable ids;
+    private final IdTable[] dictionaryIds = new IdTable[IdDictionary.COUNT];
+
+    private ByteBuffer buf;
+    private long windowStart;
+    private int windowLimit;
+
+    private int nextStart;    // where the next record begins inside the window
+    private int pos;          // next byte to read inside the current record
+    private int recordStart;
+    private int recordEnd;    // index of '\n' (or window end) for the current record
+    private int fieldCount;
+    private boolean recordValid;
+    private byte[] scratch = new byte[64];
+
+    private CsvTokenizer(FileChannel channel, long start, long end, IdTable ids) throws IOException {
+        this.channel = channel;
+        this.regionEnd = end;
+        this.ids = ids;
+        readWindow(start);
+    }
+
+    /**
+     * Reads the whole file.
+     */
+    public static CsvTokenizer open(File file) throws IOException {
+        FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        return new CsvTokenizer(ch, 0, ch.size(), new IdTable());
+    }
+
+    /**
+     * Reads only the byte range [start, end) of the file. Both ends must be at line boundaries.
+     */
+    public static CsvTokenizer open(File file, long start, long end) throws IOException {
+        FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        return new CsvTokenizer(ch, start, Math.min(end, ch.size()), new IdTable());
+    }
+
+    /**
+     * Moves to the next line. Returns false at the end of the file (or region).
+     */
+    public boolean nextRecord() throws IOException {
+        if (nextStart >= windowLimit) {
+            long next = windowStart + windowLimit;
+            if (next >= regionEnd) return false;
+            readWindow(next);
+            if (windowLimit == 0) return false;
+        }
+
+        recordStart = nextStart;
+        fieldCount = 1;
+        int i = recordStart;
+        while (i < windowLimit) {
+            byte b = buf.get(i);
+            if (b == '\n') break;
+            if (b == ',') fieldCount++;
+            i++;
+        }
+        recordEnd = i;
+        nextStart = Math.min(recordEnd + 1, windowLimit);
+        pos = recordStart;
+        recordValid = true;
+        return true;
+    }
+
+    /**
+     * true for an empty / whitespace-only line or a "#" comment line.
+     */
+    public boolean isBlankRecord() {
+        for (int i = recordStart; i < recordEnd; i++) {
+            byte b = buf.get(i);
+            if (b == '#') return true;
+            if (!isSpace(b)) return false;
+        }
+        return true;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * false if a number in the current record could not be parsed.
+     */
+    public boolean isRecordValid() {
+        return recordValid;
+    }
+
+    /**
+     * The current line as text, for error messages only.
+     */
+    public String recordText() {
+        return decode(recordStart, trimEnd(recordStart, recordEnd));
+    }
+
+    public String nextString() {
+        int end = fieldEnd();
+        String value = decode(trimStart(pos, end), trimEnd(pos, end));
+        advance(end);
+        return value;
+    }
+
+    public String nextId() {
+        int end = fieldEnd();
+        int from = trimStart(pos, end);
+        int to = trimEnd(from, end);
+        String value = ids.intern(buf, from, to);
+        advance(end);
+        return value;
+    }
+
+    /**
+     * Reads an ID field and returns its canonical instance from the shared dictionary.
+     */
+    public String nextId(IdDictionary dictionary) {
+        int end = fieldEnd();
+        int from = trimStart(pos, end);
+        int to = trimEnd(from, end);
+        IdTable table = dictionaryIds[dictionary.slot];
+        if (table == null) {
+            table = new IdTable(dictionary);
+            dictionaryIds[dictionary.slot] = table;
+        }
+        String value = table.intern(buf, from, to);
+        advance(end);
+        return value;
+    }
+
+    public void skipField() {
+        advance(fieldEnd());
+    }
+
+    public int nextInt() {
+        int end = fieldEnd();
+        int from = trimStart(pos, end);
+        int to = trimEnd(from, end);
+        advance(end);
+
+        boolean negative = false;
+        if (from < to && (buf.get(from) == '-' || buf.get(from) == '+')) {
+            negative = buf.get(from) == '-';
+            from++;
+        }
+        if (from >= to || to - from > 10) {
+            recordValid = false;
+            return 0;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) {
+                recordValid = false;
+                return 0;
+            }
+            value = value * 10 + d;
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+            recordValid = false;
+            return 0;
+        }
+        return (int) value;
+    }
+
+    public double nextDouble() {
+        int end = fieldEnd();
+        int from = trimStart(pos, end);
+        int to = trimEnd(from, end);
+        advance(end);
+
+        // fast path: [-]digits[.digits] with up to 15 significant digits.
+        // digits / 10^scale is a single correctly rounded division, so the result
+        // is identical to Double.parseDouble.
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        long digits = 0;
+        int digitCount = 0;
+        int scale = -1;
+        boolean simple = i < to;
+        for (; i < to; i++) {
+            byte b = buf.get(i);
+            if (b == '.' && scale < 0) {
+                scale = 0;
+            } else if (b >= '0' && b <= '9') {
+                digits = digits * 10 + (b - '0');
+                digitCount++;
+                if (scale >= 0) scale++;
+            } else {
+                simple = false;
+                break;
+            }
+        }
+        if (simple && digitCount > 0 && digitCount <= 15) {
+            double value = (scale <= 0) ? digits : digits / POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+
+        try {
+            return Double.parseDouble(decode(from, to));
+        } catch (NumberFormatException e) {
+            recordValid = false;
+            return 0.0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        buf = null;
+        channel.close();
+    }
+
+    /* ===================== internals ===================== */
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    // reads [start, ...) up to MAX_WINDOW, cut back to the last '\n' so no record spans two windows
+    private void readWindow(long start) throws IOException {
+        int length = (int) Math.min(MAX_WINDOW, regionEnd - start);
+        if (buf == null || buf.capacity() < length) buf = ByteBuffer.allocate(length);
+        buf.clear();
+        buf.limit(length);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, start + buf.position()) < 0) {
+                regionEnd = start + buf.position();    // file shrank meanwhile
+                break;
+            }
+        }
+        length = buf.position();
+        windowStart = start;
+        int limit = length;
+        if (start + length < regionEnd) {
+            int lastNewline = limit - 1;
+            while (lastNewline >= 0 && buf.get(lastNewline) != '\n') lastNewline--;
+            if (lastNewline < 0) throw new IOException("Line longer than " + MAX_WINDOW + " bytes");
+            limit = lastNewline + 1;
+        }
+        windowLimit = limit;
+        nextStart = 0;
+        pos = 0;
+    }
+
+    private int fieldEnd() {
+        int i = pos;
+        while (i < recordEnd && buf.get(i) != ',') i++;
+        return i;
+    }
+
+    // skip the separator after a field; reading past the last field yields empty fields
+    private void advance(int fieldEnd) {
+        pos = (fieldEnd < recordEnd) ? fieldEnd + 1 : recordEnd;
+    }
+
+    private int trimStart(int from, int to) {
+        while (from < to && isSpace(buf.get(from))) from++;
+        return from;
+    }
+
+    private int trimEnd(int from, int to) {
+        while (to > from && isSpace(buf.get(to - 1))) to--;
+        return to;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    private String decode(int from, int to) {
+        int len = to - from;
+        if (len <= 0) return "";
+        if (scratch.length < len) scratch = new byte[Math.max(len, scratch.length * 2)];
+        for (int i = 0; i < len; i++) scratch[i] = buf.get(from + i);
+        return new String(scratch, 0, len, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Open-addressing table that interns IDs by their bytes, so a String is only
+     * created the first time an ID is seen (and then resolved through the shared
+     * dictionary, if there is one).
+     */
+    static final class IdTable {
+        private final IdDictionary dictionary;
+        private byte[][] keys = new byte[256][];
+        private String[] values = new String[256];
+        private int size;
+
+        IdTable() {
+            this(null);
+        }
+
+        IdTable(IdDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        String intern(ByteBuffer buf, int from, int to) {
+            int len = to - from;
+            int hash = 1;
+            for (int i = from; i < to; i++) hash = 31 * hash + buf.get(i);
+
+            int mask = keys.length - 1;
+            int slot = mix(hash) & mask;
+            while (keys[slot] != null) {
+                if (sameBytes(keys[slot], buf, from, len)) return values[slot];
+                slot = (slot + 1) & mask;
+            }
+
+            byte[] key = new byte[len];
+            for (int i = 0; i < len; i++) key[i] = buf.get(from + i);
+            String value = new String(key, StandardCharsets.UTF_8);
+            if (dictionary != null) value = dictionary.intern(value);
+            keys[slot] = key;
+            values[slot] = value;
+            if (++size * 2 > keys.length) grow();
+            return value;
+        }
+
+        private static boolean sameBytes(byte[] key, ByteBuffer buf, int from, int len) {
+            if (key.length != len) return false;
+            for (int i = 0; i < len; i++) {
+                if (key[i] != buf.get(from + i)) return false;
+            }
+            return true;
+        }
+
+        private static int mix(int h) {
+            return h ^ (h >>> 16);
+        }
+
+        private void grow() {
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            values = new String[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == null) continue;
+                int slot = mix(Arrays.hashCode(oldKeys[i])) & mask;
+                while (keys[slot] != null) slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package edu.apu.crs.dataIO;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Cross-process lock for a data file, so several clients can share one data folder.
+// The NIO FileLock is taken on a "<file>.lock" side file: the data file itself is
+// replaced by rename on every rewrite, so a lock on it would not cover the new file.
+// Inside one JVM the lock is re-entrant (a save that compacts can take it again).
+//
+// Usage:
+//   DataFileLock.withLock(file, () -> {
+//       ... read / append / rewrite file ...
+//   });
+
+public final class DataFileLock implements AutoCloseable {
+
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final Map<String, Holder> HOLDERS = new ConcurrentHashMap<>();
+
+    // one per lock file: threads of this JVM queue on jvmLock, the first holder takes the OS lock
+    private static final class Holder {
+        final ReentrantLock jvmLock = new ReentrantLock();
+        FileChannel channel;
+        FileLock fileLock;
+    }
+
+    /** Work done while holding a lock; E is whatever checked exception the work itself throws. */
+    public interface Action<E extends Exception> {
+        void run() throws E;
+    }
+
+    /** Like Action, with a result. */
+    public interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private final Holder holder;
+
+    private DataFileLock(Holder holder) {
+        this.holder = holder;
+    }
+
+    /**
+     * Blocks until this thread holds the lock for the given data file (other processes included).
+     * @param dataFile The data file to protect; it does not have to exist.
+     */
+    public static DataFileLock lock(File dataFile) throws IOException {
+        File lockFile = new File(dataFile.getAbsoluteFile().getParentFile(), dataFile.getName() + LOCK_SUFFIX);
+        Holder holder = HOLDERS.computeIfAbsent(lockFile.getPath(), k -> new Holder());
+
+        holder.jvmLock.lock();
+        if (holder.jvmLock.getHoldCount() == 1) {
+            try {
+                File parent = lockFile.getParentFile();
+                if (parent != null) parent.mkdirs();
+                holder.channel = FileChannel.open(lockFile.toPath(),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                holder.fileLock = holder.channel.lock();
+            } catch (IOException | RuntimeException e) {
+                closeChannel(holder);
+                holder.jvmLock.unlock();
+                throw e;
+            }
+        }
+        return new DataFileLock(holder);
+    }
+
+    /**
+     * Runs work while holding the lock for the given data file.
+     */
+    public static <E extends Exception> void withLock(File dataFile, Action<E> work) throws IOException, E {
+        withLock(lock(dataFile), work);
+    }
+
+    /**
+     * Runs work, then releases a lock already taken.
+     * @param held null if the lock could not be taken: the work runs unlocked.
+     */
+    public static <E extends Exception> void withLock(DataFileLock held, Action<E> work) throws E {
+        try {
+            work.run();
+        } finally {
+            if (held != null) held.close();
+        }
+    }
+
+    /**
+     * Like withLock(held, Action), returning the work's result.
+     */
+    public static <T, E extends Exception> T withLock(DataFileLock held, Call<T, E> work) throws E {
+        try {
+            return work.call();
+        } finally {
+            if (held != null) held.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (holder.jvmLock.getHoldCount() == 1) {
+                if (holder.fileLock != null) holder.fileLock.release();
+                closeChannel(holder);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            holder.jvmLock.unlock();
+        }
+    }
+
+    private static void closeChannel(Holder holder) {
+        holder.fileLock = null;
+        if (holder.channel == null) return;
+        try {
+            holder.channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        holder.channel = null;
+    }
+
+}
@@ -0,0 +1,405 @@
+package edu.apu.crs.dataIO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Binary copy of the parsed txt files (dataSnapshot.bin), so a warm start decodes
+// rows instead of parsing every CSV again. Each section holds the rows of one source
+// file together with the FileStamp that file had when the rows were read; a section is
+// only used while its source still has that content, otherwise the caller parses the
+// txt file as before and puts the fresh rows back.
+//
+// File layout: header (magic, version, index length, index CRC32), the index
+// (per section: name, source stamp, offset, length, payload CRC32), then the payloads.
+// A payload is dictionary encoded: row count, every distinct string once, then the rows
+// with strings as dictionary codes and ints as varints.
+// Only a cache: a missing, foreign-version or corrupt file (or section) is just ignored.
+
+public class DataSnapshot {
+
+    private static final String FILE_NAME = "dataSnapshot.bin";
+    private static final int FILE_MAGIC = 0x43525342;       // "CRSB"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 4 + 8;
+
+    private final File file;
+
+    // index of the file as last read (null = not read yet / file replaced since)
+    private Map<String, Section> index;
+    // sections read or parsed by this client that are not in the file yet
+    private final Map<String, Section> pending = new LinkedHashMap<>();
+
+    public DataSnapshot() {
+        this(new File(baseDataReader.DATA_DIR + FILE_NAME));
+    }
+
+    public DataSnapshot(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Encodes / decodes the rows of one section.
+     */
+    public interface Codec<T> {
+        void write(Writer out, T row) throws IOException;
+
+        T read(Reader in);
+    }
+
+    /**
+     * The rows stored for a source file, if that file still has the content they were read from.
+     * @return null if there is no usable section (the caller parses the source instead).
+     */
+    public synchronized <T> List<T> read(String name, File source, Codec<T> codec) {
+        if (!source.exists()) return null;     // running from the jar's copy: nothing to compare with
+        Section section = pending.get(name);
+        if (section == null) section = indexEntry(name);
+        if (section == null) return null;
+
+        boolean unchanged = section.stamp.unchanged(source);
+        if (!unchanged && !section.stamp.sameContent(source)) return null;
+
+        byte[] payload = section.payload != null ? section.payload : readPayload(section);
+        if (payload == null) return null;
+
+        List<T> rows;
+        try {
+            Reader in = new Reader(ByteBuffer.wrap(payload));
+            int count = in.rowCount();
+            rows = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                rows.add(codec.read(in));
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println("Ignoring damaged snapshot section " + name + ": " + e);
+            return null;
+        }
+
+        // rewritten with the same content (e.g. compacted to the same rows): restamp it
+        if (!unchanged) pending.put(name, new Section(FileStamp.of(source), payload));
+        return rows;
+    }
+
+    /**
+     * The stamp of the source as of the last read() or put() of a section.
+     */
+    public synchronized FileStamp stamp(String name) {
+        Section section = pending.get(name);
+        if (section == null) section = indexEntry(name);
+        return section == null ? null : section.stamp;
+    }
+
+    /**
+     * Encodes rows just read from (or written to) a source file; kept until save().
+     * @param sourceStamp The source's stamp, taken before the rows were read.
+     */
+    public synchronized <T> void put(String name, FileStamp sourceStamp, Collection<T> rows, Codec<T> codec) {
+        try {
+            Writer out = new Writer();
+            for (T row : rows) {
+                codec.write(out, row);
+            }
+            pending.put(name, new Section(sourceStamp, out.toBytes(rows.size())));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes the sections put since the last save. The other sections of the file
+     * (possibly written by another client) are kept.
+     */
+    public synchronized void save() {
+        if (pending.isEmpty()) return;
+
+        try {
+            DataFileLock.withLock(file, () -> {
+                index = null;
+                Map<String, Section> sections = new LinkedHashMap<>();
+                for (Map.Entry<String, Section> e : readIndex().entrySet()) {
+                    if (pending.containsKey(e.getKey())) continue;
+                    byte[] payload = readPayload(e.getValue());
+                    if (payload != null) sections.put(e.getKey(), new Section(e.getValue().stamp, payload));
+                }
+                sections.putAll(pending);
+
+                SafeFileWriter.writeAtomically(file, encodeFile(sections), false);
+                pending.clear();
+            });
+        } catch (IOException e) {
+            System.err.println("Could not save " + file.getName() + ": " + e.getMessage());
+        } finally {
+            index = null;
+        }
+    }
+
+    private static byte[] encodeFile(Map<String, Section> sections) throws IOException {
+        ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        DataOutputStream idx = new DataOutputStream(indexBytes);
+        idx.writeInt(sections.size());
+
+        // offsets are relative to the end of the index
+        long offset = 0;
+        for (Map.Entry<String, Section> e : sections.entrySet()) {
+            byte[] payload = e.getValue().payload;
+            idx.writeUTF(e.getKey());
+            e.getValue().stamp.writeTo(idx);
+            idx.writeLong(offset);
+            idx.writeInt(payload.length);
+            idx.writeLong(crc(payload, payload.length));
+            offset += payload.length;
+        }
+        idx.flush();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_SIZE + indexBytes.size() + (int) offset);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(FILE_MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(indexBytes.size());
+        out.writeLong(crc(indexBytes.toByteArray(), indexBytes.size()));
+        indexBytes.writeTo(out);
+        for (Section section : sections.values()) {
+            out.write(section.payload);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private Section indexEntry(String name) {
+        if (index == null) index = readIndex();
+        return index.get(name);
+    }
+
+    // empty if the file is missing, from another version or damaged
+    private Map<String, Section> readIndex() {
+        Map<String, Section> sections = new HashMap<>();
+        if (!file.exists()) return sections;
+
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(ch, 0, HEADER_SIZE);
+            if (header == null || header.getInt() != FILE_MAGIC || header.getShort() != VERSION) return sections;
+            int indexLength = header.getInt();
+            long indexCrc = header.getLong();
+            if (indexLength < 0 || HEADER_SIZE + (long) indexLength > ch.size()) return sections;
+
+            ByteBuffer idx = readFully(ch, HEADER_SIZE, indexLength);
+            if (idx == null || crc(idx.array(), indexLength) != indexCrc) return sections;
+
+            long payloadStart = HEADER_SIZE + (long) indexLength;
+            int count = idx.getInt();
+            for (int i = 0; i < count; i++) {
+                String name = readUtf(idx);
+                FileStamp stamp = FileStamp.readFrom(idx);
+                long offset = idx.getLong();
+                int length = idx.getInt();
+                long crc = idx.getLong();
+                sections.put(name, new Section(stamp, payloadStart + offset, length, crc));
+            }
+        } catch (IOException | BufferUnderflowException e) {
+            System.err.println("Ignoring unreadable " + file.getName() + ": " + e);
+            sections.clear();
+        }
+        return sections;
+    }
+
+    private byte[] readPayload(Section section) {
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buf = readFully(ch, section.offset, section.length);
+            if (buf != null && crc(buf.array(), section.length) == section.crc) return buf.array();
+        } catch (IOException e) {
+            System.err.println("Could not read " + file.getName() + ": " + e.getMessage());
+        }
+        index = null;   // replaced by another client since the index was read
+        return null;
+    }
+
+    // null if the file ends first
+    private static ByteBuffer readFully(FileChannel ch, long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, position + buf.position()) < 0) return null;
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private static long crc(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return crc.getValue();
+    }
+
+    // DataOutput.writeUTF format (Java's modified UTF-8 equals UTF-8 for section names)
+    private static String readUtf(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Section {
+        final FileStamp stamp;
+        final byte[] payload;     // held until saved; null for sections only in the file
+        final long offset;
+        final int length;
+        final long crc;
+
+        Section(FileStamp stamp, byte[] payload) {
+            this.stamp = stamp;
+            this.payload = payload;
+            this.offset = -1;
+            this.length = payload.length;
+            this.crc = 0;
+        }
+
+        Section(FileStamp stamp, long offset, int length, long crc) {
+            this.stamp = stamp;
+            this.payload = null;
+            this.offset = offset;
+            this.length = length;
+            this.crc = crc;
+        }
+    }
+
+    /**
+     * Builds one section payload: each distinct string is stored once and rows refer to it by code.
+     */
+    public static final class Writer {
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        /** null is allowed */
+        public void writeString(String value) {
+            if (value == null) {
+                writeVarInt(body, 0);
+                return;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                strings.add(value);
+                code = strings.size();      // 0 is null
+                codes.put(value, code);
+            }
+            writeVarInt(body, code);
+        }
+
+        public void writeInt(int value) {
+            writeVarInt(body, (value << 1) ^ (value >> 31));   // zigzag: small negatives stay short
+        }
+
+        public void writeDouble(double value) {
+            long bits = Double.doubleToLongBits(value);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                body.write((int) (bits >>> shift));
+            }
+        }
+
+        byte[] toBytes(int rowCount) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.size() + strings.size() * 8 + 16);
+            writeVarInt(out, rowCount);
+            writeVarInt(out, strings.size());
+            for (String s : strings) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(out, bytes.length);
+                out.write(bytes);
+            }
+            body.writeTo(out);
+            return out.toByteArray();
+        }
+
+        private static void writeVarInt(ByteArrayOutputStream out, int value) {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+    }
+
+    /**
+     * Reads a section payload written by {@link Writer}.
+     */
+    public static final class Reader {
+
+        private final ByteBuffer in;
+        private final String[] strings;
+        // dictionary code -> canonical ID instance, per IdDictionary
+        private final String[][] ids = new String[IdDictionary.COUNT][];
+
+        private final int rowCount;
+
+        Reader(ByteBuffer in) {
+            this.in = in;
+            rowCount = readVarInt();
+            int count = readVarInt();
+            strings = new String[count + 1];
+            for (int i = 1; i <= count; i++) {
+                int length = readVarInt();
+                if (length > in.remaining()) throw new BufferUnderflowException();
+                strings[i] = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+                in.position(in.position() + length);
+            }
+        }
+
+        int rowCount() {
+            return rowCount;
+        }
+
+        public String readString() {
+            return strings[readVarInt()];
+        }
+
+        /**
+         * Reads a string as the canonical ID instance of the dictionary (interned once per section).
+         */
+        public String readId(IdDictionary dictionary) {
+            int code = readVarInt();
+            String[] cache = ids[dictionary.slot];
+            if (cache == null) {
+                cache = new String[strings.length];
+                ids[dictionary.slot] = cache;
+            }
+            String id = cache[code];
+            if (id == null && code != 0) {
+                id = dictionary.intern(strings[code]);
+                cache[code] = id;
+            }
+            return id;
+        }
+
+        public int readInt() {
+            int value = readVarInt();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        public double readDouble() {
+            return in.getDouble();
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = in.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package edu.apu.crs.dataIO;
+
+import edu.apu.crs.models.Course;
+import edu.apu.crs.models.Program;
+import edu.apu.crs.models.Score;
+import edu.apu.crs.models.Student;
+import io.github.cdimascio.dotenv.Dotenv;
+import java.io.Closeable;
+import java.sql.SQLException;
+import java.util.List;
+
+// Where the academic data lives. DataRepository and CourseRecoveryService read and
+// save everything through this interface, so the storage engine can be swapped:
+//   TextDataStore - the txt files in src/main/resources/data (default)
+//   H2DataStore   - an embedded database file in the same folder, indexed by student + course / plan
+// Chosen with CRS_STORAGE=text|h2 in .env (or the environment).
+//
+// Rows of the plan / milestone data sets are passed as String[] fields, in the
+// column order of their txt files.
+
+public interface DataStore extends Closeable {
+
+    List<Course> readCourses();
+
+    List<Program> readPrograms();
+
+    List<Student> readStudents();
+
+    /**
+     * @return programList rows: programId, courseId
+     */
+    List<String[]> readProgramCourses();
+
+    /**
+     * @return milestoneList rows: templateId, courseId, week, task
+     */
+    List<String[]> readMilestones();
+
+    /**
+     * Latest attempt rows; a change replaces the latest attempt of its student + course (or adds one).
+     */
+    ChangeTable<Score> scores();
+
+    /**
+     * Rows: planId, studentId, courseId, week, status, recommendation.
+     * Changes: the C / S / R / P / D entries written by CourseRecoveryService.
+     */
+    ChangeTable<String[]> recoveryPlans();
+
+    /**
+     * Rows: planId, courseId, week, task. Changes: U (upsert) / D (delete) entries.
+     */
+    ChangeTable<String[]> customMilestones();
+
+    /**
+     * Called once the services finished loading: lets the store persist what it
+     * prepared for a faster next start (the txt store's binary snapshot).
+     */
+    void checkpoint();
+
+    /**
+     * Opens the store configured by CRS_STORAGE. Falls back to the txt files
+     * if the database cannot be opened.
+     */
+    static DataStore open() {
+        String storage = Dotenv.configure().ignoreIfMissing().load().get("CRS_STORAGE", "text");
+        if ("h2".equalsIgnoreCase(storage.trim())) {
+            try {
+                return new H2DataStore();
+            } catch (SQLException e) {
+                System.err.println("Could not open the database, using the txt files: " + e.getMessage());
+            }
+        }
+        return new TextDataStore();
+    }
+
+}
@@ -0,0 +1,93 @@
+package edu.apu.crs.dataIO;
+
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.zip.CRC32;
+
+// What a data file looked like when this client last read or wrote it (size, mtime, CRC32).
+// unchanged() tells whether anyone rewrote the file; sameContent() whether the rewrite
+// actually changed anything. The checksum is only compared when size matches but mtime
+// differs, so an untouched file costs two stat calls.
+
+public final class FileStamp {
+
+    private static final FileStamp MISSING = new FileStamp(false, 0L, 0L, 0L);
+
+    private final boolean exists;
+    private final long lastModified;
+    private final long length;
+    private final long checksum;
+
+    private FileStamp(boolean exists, long lastModified, long length, long checksum) {
+        this.exists = exists;
+        this.lastModified = lastModified;
+        this.length = length;
+        this.checksum = checksum;
+    }
+
+    /**
+     * Stamps the file as it is now (reads it once for the checksum).
+     */
+    public static FileStamp of(File file) {
+        if (!file.exists()) return MISSING;
+        try {
+            return new FileStamp(true, file.lastModified(), file.length(), checksum(file));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new FileStamp(true, file.lastModified(), file.length(), -1L);
+        }
+    }
+
+    /**
+     * true if nobody wrote the file since the stamp was taken (size and mtime, no read).
+     */
+    public boolean unchanged(File file) {
+        if (!file.exists()) return !exists;
+        return exists && file.length() == length && file.lastModified() == lastModified;
+    }
+
+    /**
+     * true if the file still has the content it had when the stamp was taken,
+     * even if it was rewritten since (e.g. compacted to the same rows).
+     */
+    public boolean sameContent(File file) {
+        if (unchanged(file)) return true;
+        if (!file.exists() || !exists || file.length() != length) return false;
+        try {
+            return checksum(file) == checksum;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Writes the stamp (e.g. into a binary snapshot); read back with {@link #readFrom}.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeBoolean(exists);
+        out.writeLong(lastModified);
+        out.writeLong(length);
+        out.writeLong(checksum);
+    }
+
+    public static FileStamp readFrom(ByteBuffer in) {
+        boolean exists = in.get() != 0;
+        return new FileStamp(exists, in.getLong(), in.getLong(), in.getLong());
+    }
+
+    private static long checksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int n;
+            while ((n = in.read(buf)) > 0) crc.update(buf, 0, n);
+        }
+        return crc.getValue();
+    }
+
+}
@@ -0,0 +1,750 @@
+package edu.apu.crs.dataIO;
+
+import edu.apu.crs.models.Course;
+import edu.apu.crs.models.Program;
+import edu.apu.crs.models.Score;
+import edu.apu.crs.models.Student;
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+// Embedded H2 database (crs.mv.db in the data folder), used with CRS_STORAGE=h2.
+// Each data set is a table indexed by the keys its saved changes look rows up by
+// (student + course, plan + course + week), so a save updates the few rows it changed
+// in place and nothing is ever rewritten in full. AUTO_SERVER lets several clients
+// open the same database file.
+//
+// On first use the tables are filled from the txt files (their logs applied).
+// Every saved change is also kept in the "changes" table, which other clients read
+// from the last entry they saw, like the tail of a txt log. Compacting only trims
+// that table; a client that had not read the trimmed entries yet reloads the data set.
+//
+// One connection for the whole client, used by one thread at a time (synchronized on it).
+
+public class H2DataStore implements DataStore {
+
+    private static final String DB_NAME = "crs";
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS store_info (name VARCHAR PRIMARY KEY, info VARCHAR)",
+        "CREATE TABLE IF NOT EXISTS courses (row_no BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                + " course_id VARCHAR NOT NULL, course_name VARCHAR, credits INT, semester INT)",
+        "CREATE TABLE IF NOT EXISTS programs (row_no BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                + " program_id VARCHAR NOT NULL, program_name VARCHAR)",
+        "CREATE TABLE IF NOT EXISTS students (row_no BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                + " student_id VARCHAR NOT NULL, student_name VARCHAR, email VARCHAR, program_id VARCHAR, semester INT)",
+        "CREATE TABLE IF NOT EXISTS program_courses (row_no BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                + " program_id VARCHAR NOT NULL, course_id VARCHAR NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS milestones (row_no BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                + " template_id VARCHAR, course_id VARCHAR NOT NULL, week INT, task VARCHAR)",
+        "CREATE TABLE IF NOT EXISTS scores (row_no BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                + " student_id VARCHAR NOT NULL, course_id VARCHAR NOT NULL, attempt INT, semester INT,"
+                + " assignment_score INT, exam_score INT, grade VARCHAR, grade_point DOUBLE, status VARCHAR)",
+        "CREATE INDEX IF NOT EXISTS scores_student_course ON scores (student_id, course_id)",
+        "CREATE TABLE IF NOT EXISTS recovery_plans (row_no BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                + " plan_id VARCHAR NOT NULL, student_id VARCHAR NOT NULL, course_id VARCHAR NOT NULL,"
+                + " week INT, status VARCHAR, recommendation VARCHAR)",
+        "CREATE INDEX IF NOT EXISTS recovery_plans_plan_week ON recovery_plans (plan_id, course_id, week)",
+        "CREATE INDEX IF NOT EXISTS recovery_plans_student_course ON recovery_plans (student_id, course_id)",
+        "CREATE TABLE IF NOT EXISTS custom_milestones (row_no BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                + " plan_id VARCHAR NOT NULL, course_id VARCHAR NOT NULL, week INT NOT NULL, task VARCHAR)",
+        "CREATE UNIQUE INDEX IF NOT EXISTS custom_milestones_key ON custom_milestones (plan_id, course_id, week)",
+        "CREATE TABLE IF NOT EXISTS changes (seq BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                + " data_set VARCHAR NOT NULL, entry VARCHAR NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS changes_data_set ON changes (data_set, seq)",
+        // highest change entry trimmed from each data set
+        "CREATE TABLE IF NOT EXISTS compactions (data_set VARCHAR PRIMARY KEY, through_seq BIGINT NOT NULL)",
+        // master data is only ever read in full (ORDER BY row_no): earlier databases indexed it for nothing
+        "DROP INDEX IF EXISTS courses_course",
+        "DROP INDEX IF EXISTS students_student",
+        "DROP INDEX IF EXISTS students_program",
+        "DROP INDEX IF EXISTS program_courses_program",
+        "DROP INDEX IF EXISTS milestones_course",
+        "DROP INDEX IF EXISTS scores_course",
+    };
+
+    private final File database;
+    private final Connection connection;
+
+    private final ScoreRows scores = new ScoreRows();
+    private final PlanRows recoveryPlans = new PlanRows();
+    private final CustomMilestoneRows customMilestones = new CustomMilestoneRows();
+
+    public H2DataStore() throws SQLException {
+        this(new File(baseDataReader.DATA_DIR + DB_NAME));
+    }
+
+    /**
+     * Opens (or creates) the database, importing the txt files the first time.
+     * @param database Database path without the ".mv.db" extension.
+     */
+    public H2DataStore(File database) throws SQLException {
+        this.database = database;
+        this.connection = DriverManager.getConnection(
+                "jdbc:h2:file:" + database.getAbsolutePath() + ";AUTO_SERVER=TRUE");
+        // two clients starting together must not both import
+        try {
+            DataFileLock.withLock(lockQuietly(database), () -> {
+                connection.setAutoCommit(false);
+                try (Statement st = connection.createStatement()) {
+                    for (String sql : SCHEMA) {
+                        st.execute(sql);
+                    }
+                }
+                connection.commit();
+                if (!imported()) importTextFiles();
+            });
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Course> readCourses() {
+        List<Course> courses = new ArrayList<>();
+        synchronized (connection) {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "SELECT course_id, course_name, credits, semester FROM courses ORDER BY row_no");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    courses.add(new Course(IdDictionary.COURSES.intern(rs.getString(1)), rs.getString(2),
+                            rs.getInt(3), rs.getInt(4)));
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        return courses;
+    }
+
+    @Override
+    public List<Program> readPrograms() {
+        List<Program> programs = new ArrayList<>();
+        synchronized (connection) {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "SELECT program_id, program_name FROM programs ORDER BY row_no");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    programs.add(new Program(IdDictionary.PROGRAMS.intern(rs.getString(1)), rs.getString(2)));
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        return programs;
+    }
+
+    @Override
+    public List<Student> readStudents() {
+        List<Student> students = new ArrayList<>();
+        synchronized (connection) {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "SELECT student_id, student_name, email, program_id, semester FROM students ORDER BY row_no");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    students.add(new Student(IdDictionary.STUDENTS.intern(rs.getString(1)), rs.getString(2),
+                            rs.getString(3), IdDictionary.PROGRAMS.intern(rs.getString(4)), rs.getInt(5)));
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        return students;
+    }
+
+    @Override
+    public List<String[]> readProgramCourses() {
+        return readRows("SELECT program_id, course_id FROM program_courses ORDER BY row_no", 2);
+    }
+
+    @Override
+    public List<String[]> readMilestones() {
+        return readRows("SELECT template_id, course_id, week, task FROM milestones ORDER BY row_no", 4);
+    }
+
+    @Override
+    public ChangeTable<Score> scores() {
+        return scores;
+    }
+
+    @Override
+    public ChangeTable<String[]> recoveryPlans() {
+        return recoveryPlans;
+    }
+
+    @Override
+    public ChangeTable<String[]> customMilestones() {
+        return customMilestones;
+    }
+
+    @Override
+    public void checkpoint() {
+        // rows are read straight from the indexed tables, nothing to prepare
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (connection) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                throw new IOException("Could not close the database", e);
+            }
+        }
+    }
+
+    /* ===================== Import from the txt files ===================== */
+
+    private boolean imported() throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT info FROM store_info WHERE name = 'imported'");
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    // one transaction: a failed import leaves an empty database that is imported again next time
+    private void importTextFiles() throws SQLException {
+        System.out.println("Importing the txt data files into the database...");
+        TextDataStore text = new TextDataStore();
+        try {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO courses (course_id, course_name, credits, semester) VALUES (?, ?, ?, ?)")) {
+                for (Course c : text.readCourses()) {
+                    ps.setString(1, c.getCourseId());
+                    ps.setString(2, c.getCourseName());
+                    ps.setInt(3, c.getCredits());
+                    ps.setInt(4, c.getSemester());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO programs (program_id, program_name) VALUES (?, ?)")) {
+                for (Program p : text.readPrograms()) {
+                    ps.setString(1, p.getProgramId());
+                    ps.setString(2, p.getProgramName());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO students (student_id, student_name, email, program_id, semester) VALUES (?, ?, ?, ?, ?)")) {
+                for (Student s : text.readStudents()) {
+                    ps.setString(1, s.getStudentId());
+                    ps.setString(2, s.getStudentName());
+                    ps.setString(3, s.getEmail());
+                    ps.setString(4, s.getProgramID());
+                    ps.setInt(5, s.getCurrentSemester());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO program_courses (program_id, course_id) VALUES (?, ?)")) {
+                for (String[] p : text.readProgramCourses()) {
+                    if (p.length < 2) continue;
+                    ps.setString(1, p[0].trim());
+                    ps.setString(2, p[1].trim());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO milestones (template_id, course_id, week, task) VALUES (?, ?, ?, ?)")) {
+                for (String[] p : text.readMilestones()) {
+                    // CR001,C001,1,Review database notes
+                    if (p.length < 4) continue;
+                    ps.setString(1, p[0].trim());
+                    ps.setString(2, p[1].trim());
+                    ps.setInt(3, parseIntSafe(p[2]));
+                    ps.setString(4, p[3].trim());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            importData(text.scores(), scores);
+            importData(text.recoveryPlans(), recoveryPlans);
+            importData(text.customMilestones(), customMilestones);
+
+            try (Statement st = connection.createStatement()) {
+                st.executeUpdate("INSERT INTO store_info (name, info) VALUES ('imported', 'txt')");
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    // the snapshot rows, then its log replayed with the same code that applies a save
+    private <T> void importData(ChangeTable<T> from, DbTable<T> to) throws SQLException {
+        from.withLock(() -> {
+            List<T> changes = new ArrayList<>();
+            to.insertRows(from.load(changes));
+            for (T change : changes) {
+                to.apply(change);
+            }
+        });
+    }
+
+    /* ===================== Data sets ===================== */
+
+    // rows live in the data set's table; "changes" keeps what was saved for the other clients
+    private abstract class DbTable<T> implements ChangeTable<T> {
+
+        private final String dataSet;
+        private long lastSeq = 0;     // last change entry this client has seen (guarded by the lock)
+
+        DbTable(String dataSet) {
+            this.dataSet = dataSet;
+        }
+
+        abstract List<T> readRows() throws SQLException;
+
+        // import only: rows as they come from the txt snapshot
+        abstract void insertRows(List<T> rows) throws SQLException;
+
+        // @return false if the change is malformed and was skipped
+        abstract boolean apply(T change) throws SQLException;
+
+        abstract String encode(T change);
+
+        // null if the entry is malformed
+        abstract T decode(String entry);
+
+        @Override
+        public DataFileLock lock() {
+            return lockQuietly(new File(database.getPath() + "." + dataSet));
+        }
+
+        @Override
+        public List<T> load(List<T> changes) {
+            synchronized (connection) {
+                try {
+                    List<T> rows = readRows();
+                    lastSeq = Math.max(queryLong("SELECT MAX(seq) FROM changes WHERE data_set = ?"), compactedThrough());
+                    connection.commit();
+                    return rows;
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                    return new ArrayList<>();
+                }
+            }
+        }
+
+        @Override
+        public boolean sync(List<T> changes) {
+            synchronized (connection) {
+                try {
+                    if (compactedThrough() > lastSeq) return true;
+                    try (PreparedStatement ps = connection.prepareStatement(
+                            "SELECT seq, entry FROM changes WHERE data_set = ? AND seq > ? ORDER BY seq")) {
+                        ps.setString(1, dataSet);
+                        ps.setLong(2, lastSeq);
+                        try (ResultSet rs = ps.executeQuery()) {
+                            while (rs.next()) {
+                                lastSeq = rs.getLong(1);
+                                T change = decode(rs.getString(2));
+                                if (change != null) changes.add(change);
+                            }
+                        }
+                    }
+                    connection.commit();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+                return false;
+            }
+        }
+
+        @Override
+        public void append(List<T> changes) throws IOException {
+            if (changes.isEmpty()) return;
+            synchronized (connection) {
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "INSERT INTO changes (data_set, entry) VALUES (?, ?)")) {
+                    for (T change : changes) {
+                        apply(change);
+                        ps.setString(1, dataSet);
+                        ps.setString(2, encode(change));
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    connection.commit();
+                    lastSeq = queryLong("SELECT MAX(seq) FROM changes WHERE data_set = ?");
+                } catch (SQLException e) {
+                    rollbackQuietly();
+                    throw new IOException("Could not save " + dataSet + " changes", e);
+                }
+            }
+        }
+
+        @Override
+        public int changeCount() {
+            synchronized (connection) {
+                try {
+                    return (int) queryLong("SELECT COUNT(*) FROM changes WHERE data_set = ?");
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                    return 0;
+                }
+            }
+        }
+
+        // the table already holds every change, so only the entries other clients read are dropped
+        @Override
+        public void compact(Collection<T> rows) throws IOException {
+            synchronized (connection) {
+                try {
+                    try (PreparedStatement ps = connection.prepareStatement(
+                            "DELETE FROM changes WHERE data_set = ? AND seq <= ?")) {
+                        ps.setString(1, dataSet);
+                        ps.setLong(2, lastSeq);
+                        ps.executeUpdate();
+                    }
+                    try (PreparedStatement ps = connection.prepareStatement(
+                            "MERGE INTO compactions (data_set, through_seq) KEY (data_set) VALUES (?, ?)")) {
+                        ps.setString(1, dataSet);
+                        ps.setLong(2, lastSeq);
+                        ps.executeUpdate();
+                    }
+                    connection.commit();
+                } catch (SQLException e) {
+                    rollbackQuietly();
+                    throw new IOException("Could not compact " + dataSet + " changes", e);
+                }
+            }
+        }
+
+        private long compactedThrough() throws SQLException {
+            return queryLong("SELECT through_seq FROM compactions WHERE data_set = ?");
+        }
+
+        // single number for this data set, 0 if there is no row (or it is NULL)
+        private long queryLong(String sql) throws SQLException {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setString(1, dataSet);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getLong(1) : 0;
+                }
+            }
+        }
+    }
+
+    // a change replaces the latest attempt of its student + course (first of equal attempts), or is added
+    private final class ScoreRows extends DbTable<Score> {
+
+        ScoreRows() {
+            super("scores");
+        }
+
+        @Override
+        List<Score> readRows() throws SQLException {
+            List<Score> rows = new ArrayList<>();
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "SELECT student_id, course_id, attempt, semester, assignment_score, exam_score, grade, grade_point, status"
+                            + " FROM scores ORDER BY row_no");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new Score(IdDictionary.STUDENTS.intern(rs.getString(1)),
+                            IdDictionary.COURSES.intern(rs.getString(2)), rs.getInt(3), rs.getInt(4),
+                            rs.getInt(5), rs.getInt(6), rs.getString(7), rs.getDouble(8), rs.getString(9)));
+                }
+            }
+            return rows;
+        }
+
+        @Override
+        void insertRows(List<Score> rows) throws SQLException {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO scores (student_id, course_id, attempt, semester, assignment_score, exam_score,"
+                            + " grade, grade_point, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (Score s : rows) {
+                    ps.setString(1, s.getstudentId());
+                    ps.setString(2, s.getcourseId());
+                    setResult(ps, 3, s);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+
+        @Override
+        boolean apply(Score change) throws SQLException {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "UPDATE scores SET attempt = ?, semester = ?, assignment_score = ?, exam_score = ?,"
+                            + " grade = ?, grade_point = ?, status = ? WHERE row_no = (SELECT row_no FROM scores"
+                            + " WHERE student_id = ? AND course_id = ? ORDER BY attempt DESC, row_no LIMIT 1)")) {
+                setResult(ps, 1, change);
+                ps.setString(8, change.getstudentId());
+                ps.setString(9, change.getcourseId());
+                if (ps.executeUpdate() > 0) return true;
+            }
+            insertRows(Collections.singletonList(change));
+            return true;
+        }
+
+        // attempt .. status, starting at parameter `first`
+        private void setResult(PreparedStatement ps, int first, Score s) throws SQLException {
+            ps.setInt(first, s.getattempt());
+            ps.setInt(first + 1, s.getsemester());
+            ps.setInt(first + 2, s.getassignmentScore());
+            ps.setInt(first + 3, s.getexamScore());
+            ps.setString(first + 4, s.getgrade());
+            ps.setDouble(first + 5, s.getgradePoint());
+            ps.setString(first + 6, s.getstatus());
+        }
+
+        @Override
+        String encode(Score change) {
+            return ScoreFileWriter.toLine(change);
+        }
+
+        // S001,C003,0,1,70,72,3.3,B+,PASS
+        @Override
+        Score decode(String entry) {
+            String[] p = entry.split(",", -1);
+            if (p.length < 9) return null;
+            try {
+                return new Score(IdDictionary.STUDENTS.intern(p[0]), IdDictionary.COURSES.intern(p[1]),
+                        Integer.parseInt(p[2].trim()), Integer.parseInt(p[3].trim()),
+                        Integer.parseInt(p[4].trim()), Integer.parseInt(p[5].trim()),
+                        p[7].trim(), Double.parseDouble(p[6].trim()), p[8].trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    // same operations as CourseRecoveryService.applyLoggedPlanChange, on indexed rows
+    private final class PlanRows extends DbTable<String[]> {
+
+        PlanRows() {
+            super("recovery_plans");
+        }
+
+        @Override
+        List<String[]> readRows() throws SQLException {
+            return queryRows("SELECT plan_id, student_id, course_id, week, status, recommendation"
+                    + " FROM recovery_plans ORDER BY row_no", 6);
+        }
+
+        @Override
+        void insertRows(List<String[]> rows) throws SQLException {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO recovery_plans (plan_id, student_id, course_id, week, status, recommendation)"
+                            + " VALUES (?, ?, ?, ?, ?, ?)")) {
+                for (String[] p : rows) {
+                    // P001,S001,C001,1,Not Started,NA
+                    if (p.length < 5) continue;
+                    ps.setString(1, p[0].trim());
+                    ps.setString(2, p[1].trim());
+                    ps.setString(3, p[2].trim());
+                    ps.setInt(4, parseIntSafe(p[3]));
+                    ps.setString(5, p[4].trim());
+                    ps.setString(6, p.length > 5 ? joinTail(p, 5) : "NA");
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+
+        @Override
+        boolean apply(String[] p) throws SQLException {
+            if (p.length < 3) return false;
+            String planId = p[1].trim();
+            switch (p[0].trim()) {
+                case "C": // C,planId,studentId,courseId,week,status,recommendation
+                    if (p.length < 7) return false;
+                    if (exists("SELECT 1 FROM recovery_plans WHERE student_id = ? AND course_id = ? AND plan_id = ? AND week = ?",
+                            p[2].trim(), p[3].trim(), planId, parseIntSafe(p[4]))) {
+                        return true; // already in the table
+                    }
+                    insertRows(Collections.singletonList(new String[] {
+                            planId, p[2], p[3], p[4], p[5], joinTail(p, 6)}));
+                    return true;
+                case "S": // S,planId,courseId,week,status
+                    if (p.length < 5) return false;
+                    return update("UPDATE recovery_plans SET status = ? WHERE row_no = (SELECT MIN(row_no)"
+                                    + " FROM recovery_plans WHERE plan_id = ? AND course_id = ? AND week = ?)",
+                            joinTail(p, 4), planId, p[2].trim(), parseIntSafe(p[3]));
+                case "R": // R,planId,courseId,week,recommendation
+                    if (p.length < 5) return false;
+                    return update("UPDATE recovery_plans SET recommendation = ? WHERE row_no = (SELECT MIN(row_no)"
+                                    + " FROM recovery_plans WHERE plan_id = ? AND course_id = ? AND week = ?)",
+                            joinTail(p, 4), planId, p[2].trim(), parseIntSafe(p[3]));
+                case "P": // P,planId,recommendation   (plan-level, first row)
+                    return update("UPDATE recovery_plans SET recommendation = ? WHERE row_no = (SELECT MIN(row_no)"
+                                    + " FROM recovery_plans WHERE plan_id = ?)",
+                            joinTail(p, 2), planId);
+                case "D": // D,planId,studentId,courseId,week
+                    if (p.length < 5) return false;
+                    return update("DELETE FROM recovery_plans WHERE plan_id = ? AND student_id = ? AND course_id = ? AND week = ?",
+                            planId, p[2].trim(), p[3].trim(), parseIntSafe(p[4]));
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        String encode(String[] change) {
+            return String.join(",", change);
+        }
+
+        @Override
+        String[] decode(String entry) {
+            return entry.split(",", -1);
+        }
+    }
+
+    private final class CustomMilestoneRows extends DbTable<String[]> {
+
+        CustomMilestoneRows() {
+            super("custom_milestones");
+        }
+
+        @Override
+        List<String[]> readRows() throws SQLException {
+            return queryRows("SELECT plan_id, course_id, week, task FROM custom_milestones ORDER BY row_no", 4);
+        }
+
+        // the txt snapshot is read as upserts too, so a repeated key keeps its first position
+        @Override
+        void insertRows(List<String[]> rows) throws SQLException {
+            for (String[] p : rows) {
+                // P001,C007,4,task
+                if (p.length < 4) continue;
+                upsert(p[0].trim(), p[1].trim(), parseIntSafe(p[2]), joinTail(p, 3));
+            }
+        }
+
+        @Override
+        boolean apply(String[] p) throws SQLException {
+            if (p.length < 4) return false;
+            switch (p[0].trim()) {
+                case "U": // U,planId,courseId,week,task
+                    if (p.length < 5) return false;
+                    upsert(p[1].trim(), p[2].trim(), parseIntSafe(p[3]), joinTail(p, 4));
+                    return true;
+                case "D": // D,planId,courseId,week
+                    return update("DELETE FROM custom_milestones WHERE plan_id = ? AND course_id = ? AND week = ?",
+                            p[1].trim(), p[2].trim(), parseIntSafe(p[3]));
+                default:
+                    return false;
+            }
+        }
+
+        private void upsert(String planId, String courseId, int week, String task) throws SQLException {
+            update("MERGE INTO custom_milestones (plan_id, course_id, week, task) KEY (plan_id, course_id, week)"
+                    + " VALUES (?, ?, ?, ?)", planId, courseId, week, task);
+        }
+
+        @Override
+        String encode(String[] change) {
+            return String.join(",", change);
+        }
+
+        @Override
+        String[] decode(String entry) {
+            return entry.split(",", -1);
+        }
+    }
+
+    /* ===================== Helpers ===================== */
+
+    // @return true if a row was changed
+    private boolean update(String sql, Object... params) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    private boolean exists(String sql, Object... params) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private List<String[]> readRows(String sql, int columns) {
+        synchronized (connection) {
+            try {
+                return queryRows(sql, columns);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return new ArrayList<>();
+            }
+        }
+    }
+
+    // every column as text, the way the txt files hand rows to the services
+    private List<String[]> queryRows(String sql, int columns) throws SQLException {
+        List<String[]> rows = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String[] row = new String[columns];
+                for (int i = 0; i < columns; i++) {
+                    String value = rs.getString(i + 1);
+                    row[i] = value == null ? "" : value;
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private void rollbackQuietly() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // a lock that cannot be taken is skipped (null), like the txt store does
+    private static DataFileLock lockQuietly(File file) {
+        try {
+            return DataFileLock.lock(file);
+        } catch (IOException e) {
+            System.err.println("Could not lock " + file.getName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // free-text fields are always last, so commas inside them are glued back together
+    private static String joinTail(String[] parts, int from) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < parts.length; i++) {
+            if (i > from) sb.append(",");
+            sb.append(parts[i]);
+        }
+        return sb.toString().trim();
+    }
+
+    private static int parseIntSafe(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+}
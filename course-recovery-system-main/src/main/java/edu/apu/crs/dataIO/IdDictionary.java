@@ -0,0 +1,38 @@
+package edu.apu.crs.dataIO;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Shared dictionary of student / course / program IDs.
+// Every reader (and CourseRecoveryService) resolves IDs through it, so "C003" is one
+// String instance in the whole application instead of one copy per row.
+
+public final class IdDictionary {
+
+    public static final IdDictionary STUDENTS = new IdDictionary(0);
+    public static final IdDictionary COURSES = new IdDictionary(1);
+    public static final IdDictionary PROGRAMS = new IdDictionary(2);
+
+    // number of dictionaries above (CsvTokenizer keeps one byte cache per dictionary)
+    static final int COUNT = 3;
+
+    final int slot;
+
+    private final Map<String, String> ids = new ConcurrentHashMap<>();
+
+    private IdDictionary(int slot) {
+        this.slot = slot;
+    }
+
+    /**
+     * Returns the canonical instance of an ID, adding it if it is new.
+     * @param id The ID (surrounding spaces are removed). null stays null.
+     */
+    public String intern(String id) {
+        if (id == null) return null;
+        String key = id.trim();
+        String known = ids.putIfAbsent(key, key);
+        return (known != null) ? known : key;
+    }
+
+}
@@ -0,0 +1,58 @@
+package edu.apu.crs.dataIO;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Reads what other clients appended to a change log since this client's last read.
+// Callers remember the returned offset and pass it back next time. Only complete
+// lines are returned, so a line still being written (or torn by a crash) is left for later.
+
+public final class LogTail {
+
+    private LogTail() {}
+
+    /**
+     * Offset just past the last '\n' at or after {@code from} (== from if there is none).
+     */
+    public static long completeEnd(File file, long from) throws IOException {
+        if (!file.exists()) return from;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long pos = raf.length();
+            byte[] buf = new byte[4096];
+            while (pos > from) {
+                int n = (int) Math.min(buf.length, pos - from);
+                raf.seek(pos - n);
+                raf.readFully(buf, 0, n);
+                for (int i = n - 1; i >= 0; i--) {
+                    if (buf[i] == '\n') return pos - n + i + 1;
+                }
+                pos -= n;
+            }
+            return from;
+        }
+    }
+
+    /**
+     * Adds the complete lines between {@code from} and the end of the file to {@code lines}.
+     * @return The offset to continue from next time.
+     */
+    public static long readLines(File file, long from, List<String> lines) throws IOException {
+        long end = completeEnd(file, from);
+        if (end <= from) return from;
+
+        byte[] bytes = new byte[(int) (end - from)];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(from);
+            raf.readFully(bytes);
+        }
+        for (String line : new String(bytes, StandardCharsets.UTF_8).split("\n")) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) lines.add(trimmed);
+        }
+        return end;
+    }
+
+}
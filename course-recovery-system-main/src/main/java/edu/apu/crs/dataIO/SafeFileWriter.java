@@ -0,0 +1,130 @@
+package edu.apu.crs.dataIO;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Crash-safe writing for the txt data files.
+// A full rewrite goes to "<file>.tmp", is fsynced, then renamed over the original,
+// so a crash half way leaves either the old file or the new one - never a truncated one.
+
+public class SafeFileWriter {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String BACKUP_SUFFIX = ".bak";
+
+    /**
+     * Replaces the whole file with the given lines atomically.
+     *
+     * @param target The data file to replace.
+     * @param lines Lines to write (a newline is added after each).
+     * @param keepBackup true to keep the previous version as "<file>.bak".
+     */
+    public static void writeAtomically(File target, List<String> lines, boolean keepBackup) throws IOException {
+        File parent = target.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+
+        File temp = new File(parent, target.getName() + TEMP_SUFFIX);
+
+        // 1. Write and fsync the temp file
+        try (FileOutputStream fos = new FileOutputStream(temp, false);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8))) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+            writer.flush();
+            fos.getFD().sync();
+        }
+
+        replace(temp, target, keepBackup);
+    }
+
+    /**
+     * Replaces the whole file with the given bytes atomically (e.g. a binary snapshot).
+     */
+    public static void writeAtomically(File target, byte[] bytes, boolean keepBackup) throws IOException {
+        File parent = target.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+
+        File temp = new File(parent, target.getName() + TEMP_SUFFIX);
+        try (FileOutputStream fos = new FileOutputStream(temp, false)) {
+            fos.write(bytes);
+            fos.flush();
+            fos.getFD().sync();
+        }
+        replace(temp, target, keepBackup);
+    }
+
+    // steps 2 + 3: the fsynced temp file takes the target's place
+    private static void replace(File temp, File target, boolean keepBackup) throws IOException {
+        File parent = temp.getParentFile();
+
+        // 2. Keep one backup generation of the old version
+        if (keepBackup && target.exists()) {
+            Files.copy(target.toPath(), new File(parent, target.getName() + BACKUP_SUFFIX).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        // 3. Swap the new file in
+        try {
+            Files.move(temp.toPath(), target.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(parent);
+    }
+
+    /**
+     * Appends lines to the end of the file and fsyncs before returning.
+     * Existing content is never rewritten, so a crash can at most lose a torn last line.
+     */
+    public static void appendAndSync(File target, List<String> lines) throws IOException {
+        File parent = target.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+
+        try (FileOutputStream fos = new FileOutputStream(target, true);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8))) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+            writer.flush();
+            fos.getFD().sync();
+        }
+    }
+
+    /**
+     * Appends raw bytes (e.g. a binary segment) to the end of the file and fsyncs before returning.
+     */
+    public static void appendAndSync(File target, byte[] bytes) throws IOException {
+        File parent = target.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+
+        try (FileOutputStream fos = new FileOutputStream(target, true)) {
+            fos.write(bytes);
+            fos.flush();
+            fos.getFD().sync();
+        }
+    }
+
+    // Makes the rename itself durable. Not supported on every OS (e.g. Windows), so failures are ignored.
+    private static void syncDirectory(File dir) {
+        if (dir == null) return;
+        try (FileChannel channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
+}
@@ -1,54 +1,226 @@
 package edu.apu.crs.dataIO;
 
 import edu.apu.crs.models.Score;
-import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 
 public class ScoreFileReader extends baseDataReader {
 
     
-    private static final String FILE_NAME = "stuScore.txt";
+    private static final String FILE_NAME = ScoreFileWriter.FILE_NAME;
+    private static final String LOG_FILE_NAME = ScoreFileWriter.LOG_FILE_NAME;
+
+    // files bigger than this are parsed in parallel chunks
+    private static final long PARALLEL_THRESHOLD = 8L << 20;
+    private static final long MIN_CHUNK_SIZE = 2L << 20;
 
     public static List<Score> readScores() {
+        File file = new File(DATA_DIR + FILE_NAME);
+        if (file.length() > PARALLEL_THRESHOLD) {
+            return readScoresParallel();
+        }
+        return readScoreFile(FILE_NAME);
+    }
+
+    /**
+     * Reads stuScore.txt by splitting it into newline-aligned byte ranges and parsing
+     * them on the fork-join pool. Chunks are joined back in file order, so the result
+     * is exactly the list the sequential reader returns.
+     * @return All score rows in file order.
+     */
+    public static List<Score> readScoresParallel() {
+        File file = new File(DATA_DIR + FILE_NAME);
+        if (!file.exists()) {
+            System.err.println("FATAL ERROR: Data file not found: " + DATA_DIR + FILE_NAME);
+            return new ArrayList<>();
+        }
+        try {
+            int parallelism = ForkJoinPool.commonPool().getParallelism();
+            return readScoresParallel(file, (int) Math.max(1, Math.min(parallelism * 4L, file.length() / MIN_CHUNK_SIZE)));
+        } catch (IOException | UncheckedIOException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    // split into (up to) the given number of chunks; tests use many small ones
+    static List<Score> readScoresParallel(File file, int chunks) throws IOException {
+        long[] bounds = lineAlignedBounds(file, chunks);
+
+        List<List<Score>> parts = new ArrayList<>();
+        for (int i = 0; i < bounds.length - 1; i++) parts.add(null);
+        ForkJoinPool.commonPool().invoke(new ParseChunksTask(file, bounds, parts, 0, bounds.length - 1));
+
+        int total = 0;
+        for (List<Score> part : parts) total += part.size();
+        List<Score> scores = new ArrayList<>(total);
+        for (List<Score> part : parts) scores.addAll(part);
+        return scores;
+    }
+
+    // the whole file in one pass (what readScores does below PARALLEL_THRESHOLD)
+    static List<Score> readScoresSequentially(File file) throws IOException {
         List<Score> scores = new ArrayList<>();
-        try (BufferedReader br = new ScoreFileReader().getReader(FILE_NAME)) {
-            if (br == null) return scores;
-
-            String line;
-
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                String[] parts = line.split(",");
-                
-
-                if (parts.length >= 9) {
-                    try {
-                        String studentId = parts[0].trim();
-                        String courseId = parts[1].trim();
-                        int attempt = Integer.parseInt(parts[2].trim());
-                        int semester = Integer.parseInt(parts[3].trim());
-                        int assignmentScore = Integer.parseInt(parts[4].trim());
-                        int examScore = Integer.parseInt(parts[5].trim());
-                        double gradePoint = Double.parseDouble(parts[6].trim());
-                        String grade = parts[7].trim();
-                        String status = parts[8].trim();
-                        
-                        
-                        scores.add(new Score(
-                            studentId, courseId, attempt, semester,
-                            assignmentScore, examScore, grade, gradePoint, status
-                        ));
-                    } catch (NumberFormatException e) {
-                        System.err.println("Skipping line with invalid numeric format: " + line);
-                    }
-                }
+        try (CsvTokenizer csv = CsvTokenizer.open(file)) {
+            parseScores(csv, scores);
+        }
+        return scores;
+    }
+
+    /**
+     * The score snapshot. DataFileLock is taken on this file for all score files.
+     */
+    public static File scoreFile() {
+        return new File(DATA_DIR + FILE_NAME);
+    }
+
+    public static File scoreLogFile() {
+        return new File(DATA_DIR + LOG_FILE_NAME);
+    }
+
+    /**
+     * Reads the complete rows of stuScore.log after byte {@code from}, e.g. the ones
+     * another client appended since this client last read the log.
+     * @param from Offset returned by the previous call (0 for the whole log).
+     * @param changes Receives the rows in save order.
+     * @return The offset to continue from next time.
+     */
+    public static long readScoreChangesFrom(long from, List<Score> changes) {
+        File file = scoreLogFile();
+        if (!file.exists()) return from;
+        try {
+            long end = LogTail.completeEnd(file, from);
+            if (end <= from) return from;
+            try (CsvTokenizer csv = CsvTokenizer.open(file, from, end)) {
+                parseScores(csv, changes);
             }
+            return end;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return from;
+        }
+    }
+
+    private static List<Score> readScoreFile(String fileName) {
+        List<Score> scores = new ArrayList<>();
+        try (CsvTokenizer csv = new ScoreFileReader().openCsv(fileName)) {
+            if (csv == null) return scores;
+            parseScores(csv, scores);
         } catch (IOException e) {
             e.printStackTrace();
         }
         return scores;
     }
-}
\ No newline at end of file
+
+    private static void parseScores(CsvTokenizer csv, List<Score> scores) throws IOException {
+        parseRows(csv, (studentId, courseId, attempt, semester, assignmentScore, examScore, gradePoint, grade, status) ->
+            scores.add(new Score(
+                studentId, courseId, attempt, semester,
+                assignmentScore, examScore, grade, gradePoint, status
+            )));
+    }
+
+    private static void parseRows(CsvTokenizer csv, ScoreRowHandler handler) throws IOException {
+        while (csv.nextRecord()) {
+            if (csv.isBlankRecord()) continue;
+
+            if (csv.fieldCount() >= 9) {
+                // stuScore: S001,C003,0,1,70,72,3.3,B+,PASS
+                String studentId = csv.nextId(IdDictionary.STUDENTS);
+                String courseId = csv.nextId(IdDictionary.COURSES);
+                int attempt = csv.nextInt();
+                int semester = csv.nextInt();
+                int assignmentScore = csv.nextInt();
+                int examScore = csv.nextInt();
+                double gradePoint = csv.nextDouble();
+                String grade = csv.nextId();
+                String status = csv.nextId();
+
+                if (!csv.isRecordValid()) {
+                    System.err.println("Skipping line with invalid numeric format: " + csv.recordText());
+                    continue;
+                }
+                handler.onRow(studentId, courseId, attempt, semester,
+                    assignmentScore, examScore, gradePoint, grade, status);
+            }
+        }
+    }
+
+    // chunk boundaries: 0, then the byte after the first '\n' at or past each even split point, then file size
+    private static long[] lineAlignedBounds(File file, int chunks) throws IOException {
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = ch.size();
+            List<Long> bounds = new ArrayList<>();
+            bounds.add(0L);
+            ByteBuffer probe = ByteBuffer.allocate(4096);
+
+            for (int k = 1; k < chunks; k++) {
+                long p = Math.max(size * k / chunks, bounds.get(bounds.size() - 1));
+                long boundary = size;
+                while (p < size && boundary == size) {
+                    probe.clear();
+                    int n = ch.read(probe, p);
+                    if (n <= 0) break;
+                    for (int i = 0; i < n; i++) {
+                        if (probe.get(i) == '\n') {
+                            boundary = p + i + 1;
+                            break;
+                        }
+                    }
+                    p += n;
+                }
+                if (boundary > bounds.get(bounds.size() - 1) && boundary < size) bounds.add(boundary);
+            }
+            bounds.add(size);
+
+            long[] result = new long[bounds.size()];
+            for (int i = 0; i < result.length; i++) result[i] = bounds.get(i);
+            return result;
+        }
+    }
+
+    // splits the chunk range in half until one chunk is left, then parses it
+    private static class ParseChunksTask extends RecursiveAction {
+        private final File file;
+        private final long[] bounds;
+        private final List<List<Score>> results;
+        private final int from;
+        private final int to;
+
+        ParseChunksTask(File file, long[] bounds, List<List<Score>> results, int from, int to) {
+            this.file = file;
+            this.bounds = bounds;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ParseChunksTask(file, bounds, results, from, mid),
+                          new ParseChunksTask(file, bounds, results, mid, to));
+                return;
+            }
+            List<Score> scores = new ArrayList<>();
+            try (CsvTokenizer csv = CsvTokenizer.open(file, bounds[from], bounds[from + 1])) {
+                parseScores(csv, scores);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            synchronized (results) {
+                results.set(from, scores);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package edu.apu.crs.dataIO;
+
+import edu.apu.crs.models.Score;
+
+// Row format of stuScore.txt and stuScore.log (the log uses the same format).
+// TextDataStore appends single changes to stuScore.log and only rewrites
+// stuScore.txt when the log is compacted.
+
+public class ScoreFileWriter {
+
+    static final String FILE_NAME = "stuScore.txt";
+    static final String LOG_FILE_NAME = "stuScore.log";
+
+    // stuScore: S001,C003,0,1,70,72,3.3,B+,PASS
+    public static String toLine(Score s) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(s.getstudentId()).append(",");
+        sb.append(s.getcourseId()).append(",");
+        sb.append(s.getattempt()).append(",");
+        sb.append(s.getsemester()).append(",");
+        sb.append(s.getassignmentScore()).append(",");
+        sb.append(s.getexamScore()).append(",");
+        sb.append(s.getgradePoint()).append(",");
+        sb.append(s.getgrade()).append(",");
+        sb.append(s.getstatus());
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,234 @@
+package edu.apu.crs.dataIO;
+
+import edu.apu.crs.models.Score;
+import edu.apu.crs.models.ScoreTable;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Every score attempt ever recorded, kept in a compact column-oriented binary file
+// (stuScoreHistory.bin). stuScore.txt only keeps the latest attempt per student + course;
+// this store keeps them all (the recovery panel lists a student's attempts from it).
+//
+// File layout: header (magic, version) followed by append-only segments.
+// Each segment holds the dictionary entries added since the previous segment (student IDs,
+// course IDs and, since SEG3, grade / status labels that are neither a Grade nor a
+// ScoreStatus) and then one block per ScoreTable column:
+//   student ordinal (int) | course ordinal (char) | attempt,semester,assignment,exam packed (int)
+//   | grade point x100 (short) | grade code (byte) | status code (byte)
+// Segment ordinals continue the dictionaries of all earlier segments, so when several
+// clients share the file each one reads the segments the others appended before adding its own
+// (callers hold the score files' DataFileLock).
+
+public class ScoreHistoryStore {
+
+    private static final String FILE_NAME = "stuScoreHistory.bin";
+    private static final int FILE_MAGIC = 0x43525348;       // "CRSH"
+    private static final int SEGMENT_MAGIC = 0x53454733;    // "SEG3"
+    private static final int SEGMENT_MAGIC_NO_LABELS = 0x53454732;    // "SEG2": written before labels were kept
+    private static final short VERSION = 1;
+
+    private final File file;
+    private final ScoreTable table = new ScoreTable();
+
+    // how much of the in-memory data is already on disk
+    private int savedRows = 0;
+    private int savedStudents = 0;
+    private int savedCourses = 0;
+    private int savedLabels = 0;
+    private long savedBytes = 0;      // file offset after the last segment read or written
+
+    public ScoreHistoryStore() {
+        this(new File(baseDataReader.DATA_DIR + FILE_NAME));
+    }
+
+    public ScoreHistoryStore(File file) {
+        this.file = file;
+    }
+
+    public boolean exists() {
+        return file.exists() && file.length() > 0;
+    }
+
+    /**
+     * Loads every segment of the history file not read yet (all of them on the first call).
+     * A torn last segment (crash while appending) is cut off so the next append starts
+     * from a clean position.
+     */
+    public void load() throws IOException {
+        if (!exists() || file.length() <= savedBytes) return;
+
+        ByteBuffer buf = readFrom(savedBytes);
+        if (savedBytes == 0
+                && (buf.remaining() < 6 || buf.getInt() != FILE_MAGIC || buf.getShort() != VERSION)) {
+            throw new IOException("Not a score history file: " + file);
+        }
+
+        int goodEnd = buf.position();
+        while (buf.hasRemaining()) {
+            int mark = buf.position();
+            try {
+                readSegment(buf);
+                markSaved();
+                goodEnd = buf.position();
+            } catch (BufferUnderflowException | IllegalStateException | IllegalArgumentException e) {
+                System.err.println("Score history: dropping incomplete segment at byte " + (savedBytes + mark));
+                rollbackToSaved();
+                break;
+            }
+        }
+
+        savedBytes += goodEnd;
+        if (savedBytes < file.length()) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(savedBytes);
+            }
+        }
+    }
+
+    /**
+     * Adds attempts to the history and appends them to the file as one new segment.
+     * @param attempts Score rows in the state they should be remembered.
+     */
+    public void append(List<Score> attempts) throws IOException {
+        load(); // segments another client appended come first
+        for (Score s : attempts) {
+            try {
+                table.add(s);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Score history: skipping " + s.getstudentId() + "," + s.getcourseId()
+                        + " (" + e.getMessage() + ")");
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Returns every recorded attempt of one student for one course, in recording order.
+     */
+    public List<Score> attemptsOf(String studentId, String courseId) {
+        return table.attemptsOf(studentId, courseId);
+    }
+
+    /* ===================== segments ===================== */
+
+    private void flush() throws IOException {
+        int size = table.size();
+        if (size == savedRows) return;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            if (!file.exists() || file.length() == 0) {
+                out.writeInt(FILE_MAGIC);
+                out.writeShort(VERSION);
+            }
+            out.writeInt(SEGMENT_MAGIC);
+            writeStrings(out, table.getStudentIds(), savedStudents);
+            writeStrings(out, table.getCourseIds(), savedCourses);
+            writeStrings(out, table.getOtherLabels(), savedLabels);
+
+            out.writeInt(size - savedRows);
+            for (int i = savedRows; i < size; i++) out.writeInt(table.getStudentOrdinal(i));
+            for (int i = savedRows; i < size; i++) out.writeChar(table.getCourseOrdinal(i));
+            for (int i = savedRows; i < size; i++) out.writeInt(table.getPacked(i));
+            for (int i = savedRows; i < size; i++) out.writeShort(table.getGradePointX100(i));
+            for (int i = savedRows; i < size; i++) out.writeByte(table.getGradeCode(i));
+            for (int i = savedRows; i < size; i++) out.writeByte(table.getStatusCode(i));
+        }
+
+        SafeFileWriter.appendAndSync(file, bytes.toByteArray());
+        savedBytes += bytes.size();
+        markSaved();
+    }
+
+    private void readSegment(ByteBuffer buf) {
+        int magic = buf.getInt();
+        if (magic != SEGMENT_MAGIC && magic != SEGMENT_MAGIC_NO_LABELS) throw new IllegalStateException("bad segment");
+
+        for (String id : readStrings(buf)) table.studentOrdinal(id);
+        for (String id : readStrings(buf)) table.courseOrdinal(id);
+        if (magic == SEGMENT_MAGIC) {
+            for (String label : readStrings(buf)) table.labelCode(label);
+        }
+
+        int rows = buf.getInt();
+        if (rows < 0 || (long) rows * 14 > buf.remaining()) throw new IllegalStateException("bad row count");
+        int[] student = new int[rows];
+        char[] course = new char[rows];
+        int[] packed = new int[rows];
+        short[] gradePoint = new short[rows];
+        byte[] grade = new byte[rows];
+        byte[] status = new byte[rows];
+        for (int i = 0; i < rows; i++) student[i] = buf.getInt();
+        for (int i = 0; i < rows; i++) course[i] = buf.getChar();
+        for (int i = 0; i < rows; i++) packed[i] = buf.getInt();
+        for (int i = 0; i < rows; i++) gradePoint[i] = buf.getShort();
+        buf.get(grade);
+        buf.get(status);
+
+        int students = table.getStudentIds().size();
+        int courses = table.getCourseIds().size();
+        int labels = table.getOtherLabels().size();
+        for (int i = 0; i < rows; i++) {
+            if (student[i] < 0 || student[i] >= students || course[i] >= courses
+                    || -2 - grade[i] >= labels || -2 - status[i] >= labels) {
+                throw new IllegalStateException("bad ordinal");
+            }
+            table.addEncoded(student[i], course[i], packed[i], gradePoint[i], grade[i], status[i]);
+        }
+    }
+
+    private ByteBuffer readFrom(long offset) throws IOException {
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate((int) (ch.size() - offset));
+            while (buf.hasRemaining()) {
+                if (ch.read(buf, offset + buf.position()) < 0) break;
+            }
+            buf.flip();
+            return buf;
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values, int from) throws IOException {
+        out.writeInt(values.size() - from);
+        for (int i = from; i < values.size(); i++) {
+            byte[] utf8 = values.get(i).getBytes(StandardCharsets.UTF_8);
+            out.writeShort(utf8.length);
+            out.write(utf8);
+        }
+    }
+
+    private static List<String> readStrings(ByteBuffer buf) {
+        int count = buf.getInt();
+        if (count < 0 || count > buf.remaining()) throw new IllegalStateException("bad dictionary size");
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] utf8 = new byte[buf.getShort() & 0xFFFF];
+            buf.get(utf8);
+            values.add(new String(utf8, StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    // forget a half-read segment (dictionaries and rows past the last complete segment)
+    private void rollbackToSaved() {
+        table.truncate(savedRows, savedStudents, savedCourses, savedLabels);
+    }
+
+    private void markSaved() {
+        savedRows = table.size();
+        savedStudents = table.getStudentIds().size();
+        savedCourses = table.getCourseIds().size();
+        savedLabels = table.getOtherLabels().size();
+    }
+
+}
@@ -0,0 +1,12 @@
+package edu.apu.crs.dataIO;
+
+// Receives one stuScore row at a time as plain values; ScoreFileReader's sequential
+// and chunked parsers share one row loop through it.
+
+@FunctionalInterface
+interface ScoreRowHandler {
+
+    void onRow(String studentId, String courseId, int attempt, int semester,
+               int assignmentScore, int examScore, double gradePoint, String grade, String status);
+
+}
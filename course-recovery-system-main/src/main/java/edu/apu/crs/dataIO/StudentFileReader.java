@@ -1,38 +1,35 @@
 package edu.apu.crs.dataIO;
 
 import edu.apu.crs.models.Student;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 public class StudentFileReader extends baseDataReader{
 
-    private static final String FILE_NAME = "stuList.txt";
+    static final String FILE_NAME = "stuList.txt";
 
     public static List<Student> readStudents() {
         List<Student> students = new ArrayList<>();
-        try (BufferedReader br = new StudentFileReader().getReader(FILE_NAME)) {
-            if (br == null) return students;
+        try (CsvTokenizer csv = new StudentFileReader().openCsv(FILE_NAME)) {
+            if (csv == null) return students;
 
-            String line;
-    
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                String[] parts = line.split(",");
+            while (csv.nextRecord()) {
+                if (csv.isBlankRecord()) continue;
                 
-                if (parts.length >= 6) {
-                    try {
-                        String studentId = parts[0].trim();
-                        String studentName = parts[1].trim();
-                        String email = parts[2].trim();
-                        String programId = parts[3].trim();
-                        int currentSemester = Integer.parseInt(parts[5].trim());
-                        
-                        students.add(new Student(studentId, studentName, email, programId, currentSemester));
-                    } catch (NumberFormatException e) {
-                        System.err.println("Skipping line with invalid semester format: " + line);
+                if (csv.fieldCount() >= 6) {
+                    String studentId = csv.nextId(IdDictionary.STUDENTS);
+                    String studentName = csv.nextString();
+                    String email = csv.nextString();
+                    String programId = csv.nextId(IdDictionary.PROGRAMS);
+                    csv.skipField(); // program name (looked up from program.txt instead)
+                    int currentSemester = csv.nextInt();
+
+                    if (!csv.isRecordValid()) {
+                        System.err.println("Skipping line with invalid semester format: " + csv.recordText());
+                        continue;
                     }
+                    students.add(new Student(studentId, studentName, email, programId, currentSemester));
                 }
             }
         } catch (IOException e) {
@@ -4,7 +4,6 @@ import edu.apu.crs.usermanagement.Data.AcademicOfficer;
 import edu.apu.crs.usermanagement.Data.CourseAdministrator;
 import edu.apu.crs.usermanagement.Data.systemUser; // Assuming SystemUser is the class name
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,27 +19,22 @@ public class SystemUserFileReader extends baseDataReader{
         List<systemUser> users = new ArrayList<>();
         
         
-        try (BufferedReader br = new SystemUserFileReader().getReader(FILE_NAME)) {
-            if (br == null) return users; // File not found error handling
+        try (CsvTokenizer csv = new SystemUserFileReader().openCsv(FILE_NAME)) {
+            if (csv == null) return users; // File not found error handling
 
-            String line;
-            
+            while (csv.nextRecord()) {
+                if (csv.isBlankRecord()) continue;
 
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                
-                String[] parts = line.split(",");
-
-                if (parts.length < 5) {
-                    System.err.println("Skipping malformed line: " + line);
+                if (csv.fieldCount() < 5) {
+                    System.err.println("Skipping malformed line: " + csv.recordText());
                     continue;
                 }
 
-                String userID = parts[0].trim();
-                String username = parts[1].trim();
-                String email = parts[2].trim();
-                String password = parts[3].trim();
-                String role = parts[4].trim();
+                String userID = csv.nextId();
+                String username = csv.nextString();
+                String email = csv.nextString();
+                String password = csv.nextString();
+                String role = csv.nextId();
 
                 systemUser user = null;
                 
@@ -0,0 +1,138 @@
+package edu.apu.crs.dataIO;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// A data set kept as "<name>.txt" (snapshot) plus "<name>.log" (changes saved since).
+// Saving appends to the log; the snapshot is only rewritten when the log is compacted.
+// Both files share one DataFileLock taken on the snapshot.
+//
+// To pick up other clients' saves this remembers how far into the log it has read and
+// what the snapshot looked like: a log that was restarted is read again from the start,
+// and only a snapshot compacted to different rows makes the caller reload.
+// The snapshot's rows are also kept in the binary DataSnapshot (section named after
+// the file), so an unchanged snapshot is decoded instead of parsed; the log is always read.
+
+public abstract class TextChangeTable<T> implements ChangeTable<T> {
+
+    private final File snapshot;
+    private final File log;
+    private final DataSnapshot cache;
+    private final DataSnapshot.Codec<T> codec;
+
+    // guarded by the data set's lock
+    private FileStamp snapshotStamp;
+    private long logOffset = 0;      // bytes of the log already read here
+    private int logEntries = 0;
+
+    protected TextChangeTable(File snapshot, File log, DataSnapshot cache, DataSnapshot.Codec<T> codec) {
+        this.snapshot = snapshot;
+        this.log = log;
+        this.cache = cache;
+        this.codec = codec;
+    }
+
+    protected File snapshotFile() {
+        return snapshot;
+    }
+
+    protected File logFile() {
+        return log;
+    }
+
+    /**
+     * Every row of the snapshot file, in file order.
+     */
+    protected abstract List<T> readRows();
+
+    /**
+     * Adds the complete log lines after byte {@code from} to {@code changes}.
+     * @return The offset to continue from next time.
+     */
+    protected abstract long readChanges(long from, List<T> changes);
+
+    protected abstract String toLine(T row);
+
+    @Override
+    public DataFileLock lock() {
+        try {
+            return DataFileLock.lock(snapshot);
+        } catch (IOException e) {
+            System.err.println("Could not lock " + snapshot.getName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public List<T> load(List<T> changes) {
+        List<T> rows = cache.read(snapshot.getName(), snapshot, codec);
+        if (rows != null) {
+            snapshotStamp = cache.stamp(snapshot.getName());
+        } else {
+            snapshotStamp = FileStamp.of(snapshot);
+            rows = readRows();
+            // encoded now, before the caller applies the log to the rows
+            cache.put(snapshot.getName(), snapshotStamp, rows, codec);
+        }
+        int before = changes.size();
+        logOffset = readChanges(0, changes);
+        logEntries = changes.size() - before;
+        return rows;
+    }
+
+    @Override
+    public boolean sync(List<T> changes) {
+        if (snapshotStamp != null && !snapshotStamp.unchanged(snapshot)) {
+            if (!snapshotStamp.sameContent(snapshot)) return true;
+            // compacted to the same rows: only the log was restarted
+            snapshotStamp = FileStamp.of(snapshot);
+            logOffset = 0;
+            logEntries = 0;
+        }
+        if (log.length() < logOffset) logOffset = 0;
+
+        int before = changes.size();
+        logOffset = readChanges(logOffset, changes);
+        logEntries += changes.size() - before;
+        return false;
+    }
+
+    @Override
+    public void append(List<T> changes) throws IOException {
+        if (changes.isEmpty()) return;
+        SafeFileWriter.appendAndSync(log, toLines(changes));
+        logOffset = log.length();
+        logEntries += changes.size();
+    }
+
+    @Override
+    public int changeCount() {
+        return logEntries;
+    }
+
+    // the snapshot is written first, so a crash in between only leaves already-applied (idempotent) log entries
+    @Override
+    public void compact(Collection<T> rows) throws IOException {
+        SafeFileWriter.writeAtomically(snapshot, toLines(rows), true);
+        snapshotStamp = FileStamp.of(snapshot);
+        Files.deleteIfExists(log.toPath());
+        logEntries = 0;
+        logOffset = 0;
+
+        cache.put(snapshot.getName(), snapshotStamp, rows, codec);
+        cache.save();
+    }
+
+    private List<String> toLines(Collection<T> rows) {
+        List<String> lines = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            lines.add(toLine(row));
+        }
+        return lines;
+    }
+
+}
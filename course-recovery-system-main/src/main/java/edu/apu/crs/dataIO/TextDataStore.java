@@ -0,0 +1,293 @@
+package edu.apu.crs.dataIO;
+
+import edu.apu.crs.models.Course;
+import edu.apu.crs.models.Program;
+import edu.apu.crs.models.Score;
+import edu.apu.crs.models.Student;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+// The original storage: comma separated txt files in src/main/resources/data.
+// Master data is read with the *FileReader classes; scores, recovery plans and custom
+// milestones are each a snapshot .txt plus a .log of the changes saved since.
+// Parsed rows are cached in dataSnapshot.bin (see DataSnapshot): files that did not
+// change since the last start are decoded from there instead of parsed again.
+
+public class TextDataStore implements DataStore {
+
+    private static final String RESOURCE_FOLDER = "data/";
+
+    private final DataSnapshot snapshot = new DataSnapshot();
+
+    private final ChangeTable<Score> scores = new ScoreFiles(snapshot);
+    private final ChangeTable<String[]> recoveryPlans = new CsvFiles("courseRecoveryPlan", snapshot);
+    private final ChangeTable<String[]> customMilestones = new CsvFiles("recoveryMilestoneCustom", snapshot);
+
+    @Override
+    public List<Course> readCourses() {
+        return cached(CourseFileReader.FILE_NAME, CourseFileReader::readCourses, COURSE_CODEC);
+    }
+
+    @Override
+    public List<Program> readPrograms() {
+        return cached(ProgramFileReader.FILE_NAME, ProgramFileReader::readPrograms, PROGRAM_CODEC);
+    }
+
+    @Override
+    public List<Student> readStudents() {
+        return cached(StudentFileReader.FILE_NAME, StudentFileReader::readStudents, STUDENT_CODEC);
+    }
+
+    @Override
+    public List<String[]> readProgramCourses() {
+        return cached("programList.txt", () -> readCsv("programList.txt"), CSV_CODEC);
+    }
+
+    @Override
+    public List<String[]> readMilestones() {
+        return cached("milestoneList.txt", () -> readCsv("milestoneList.txt"), CSV_CODEC);
+    }
+
+    @Override
+    public ChangeTable<Score> scores() {
+        return scores;
+    }
+
+    @Override
+    public ChangeTable<String[]> recoveryPlans() {
+        return recoveryPlans;
+    }
+
+    @Override
+    public ChangeTable<String[]> customMilestones() {
+        return customMilestones;
+    }
+
+    // writes the rows parsed during this start, so the next one can skip parsing them
+    @Override
+    public void checkpoint() {
+        snapshot.save();
+    }
+
+    @Override
+    public void close() {
+        // nothing is kept open between calls
+    }
+
+    // rows from the binary snapshot if the file did not change, else parsed (and put back)
+    private <T> List<T> cached(String fileName, Supplier<List<T>> parse, DataSnapshot.Codec<T> codec) {
+        File file = new File(baseDataReader.DATA_DIR + fileName);
+        List<T> rows = snapshot.read(fileName, file, codec);
+        if (rows != null) return rows;
+
+        FileStamp stamp = FileStamp.of(file);
+        rows = parse.get();
+        if (file.exists()) snapshot.put(fileName, stamp, rows, codec);
+        return rows;
+    }
+
+    // Rows split on ',' (blank and '#' lines skipped). Reads the project file,
+    // or the copy on the classpath when running from a jar.
+    static List<String[]> readCsv(String fileName) {
+        List<String[]> rows = new ArrayList<>();
+        File file = new File(baseDataReader.DATA_DIR + fileName);
+        try {
+            DataFileLock.withLock(lockQuietly(file), () -> {
+                try (BufferedReader reader = openReader(file, RESOURCE_FOLDER + fileName)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        String trimmed = line.trim();
+                        if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+                        rows.add(trimmed.split(",", -1));
+                    }
+                }
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return rows;
+    }
+
+    // a file that cannot be locked is still read (unlocked)
+    private static DataFileLock lockQuietly(File file) {
+        try {
+            return DataFileLock.lock(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static BufferedReader openReader(File file, String resourcePath) throws IOException {
+        if (file.exists()) {
+            return new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+        }
+        InputStream is = TextDataStore.class.getClassLoader().getResourceAsStream(resourcePath);
+        if (is == null) throw new FileNotFoundException("Resource not found: " + resourcePath);
+        return new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+    }
+
+    /* ===================== snapshot codecs ===================== */
+
+    private static final DataSnapshot.Codec<Course> COURSE_CODEC = new DataSnapshot.Codec<Course>() {
+        @Override
+        public void write(DataSnapshot.Writer out, Course c) {
+            out.writeString(c.getCourseId());
+            out.writeString(c.getCourseName());
+            out.writeInt(c.getCredits());
+            out.writeInt(c.getSemester());
+        }
+
+        @Override
+        public Course read(DataSnapshot.Reader in) {
+            return new Course(in.readId(IdDictionary.COURSES), in.readString(), in.readInt(), in.readInt());
+        }
+    };
+
+    private static final DataSnapshot.Codec<Program> PROGRAM_CODEC = new DataSnapshot.Codec<Program>() {
+        @Override
+        public void write(DataSnapshot.Writer out, Program p) {
+            out.writeString(p.getProgramId());
+            out.writeString(p.getProgramName());
+        }
+
+        @Override
+        public Program read(DataSnapshot.Reader in) {
+            return new Program(in.readId(IdDictionary.PROGRAMS), in.readString());
+        }
+    };
+
+    private static final DataSnapshot.Codec<Student> STUDENT_CODEC = new DataSnapshot.Codec<Student>() {
+        @Override
+        public void write(DataSnapshot.Writer out, Student s) {
+            out.writeString(s.getStudentId());
+            out.writeString(s.getStudentName());
+            out.writeString(s.getEmail());
+            out.writeString(s.getProgramID());
+            out.writeInt(s.getCurrentSemester());
+        }
+
+        @Override
+        public Student read(DataSnapshot.Reader in) {
+            return new Student(in.readId(IdDictionary.STUDENTS), in.readString(), in.readString(),
+                    in.readId(IdDictionary.PROGRAMS), in.readInt());
+        }
+    };
+
+    private static final DataSnapshot.Codec<Score> SCORE_CODEC = new DataSnapshot.Codec<Score>() {
+        @Override
+        public void write(DataSnapshot.Writer out, Score s) {
+            out.writeString(s.getstudentId());
+            out.writeString(s.getcourseId());
+            out.writeInt(s.getattempt());
+            out.writeInt(s.getsemester());
+            out.writeInt(s.getassignmentScore());
+            out.writeInt(s.getexamScore());
+            out.writeString(s.getgrade());
+            out.writeDouble(s.getgradePoint());
+            out.writeString(s.getstatus());
+        }
+
+        @Override
+        public Score read(DataSnapshot.Reader in) {
+            String studentId = in.readId(IdDictionary.STUDENTS);
+            String courseId = in.readId(IdDictionary.COURSES);
+            int attempt = in.readInt();
+            int semester = in.readInt();
+            int assignmentScore = in.readInt();
+            int examScore = in.readInt();
+            String grade = in.readString();
+            double gradePoint = in.readDouble();
+            String status = in.readString();
+            return new Score(studentId, courseId, attempt, semester, assignmentScore, examScore,
+                    grade, gradePoint, status);
+        }
+    };
+
+    // plain String[] rows: field count, then the fields
+    private static final DataSnapshot.Codec<String[]> CSV_CODEC = new DataSnapshot.Codec<String[]>() {
+        @Override
+        public void write(DataSnapshot.Writer out, String[] row) {
+            out.writeInt(row.length);
+            for (String field : row) {
+                out.writeString(field);
+            }
+        }
+
+        @Override
+        public String[] read(DataSnapshot.Reader in) {
+            String[] row = new String[in.readInt()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = in.readString();
+            }
+            return row;
+        }
+    };
+
+    // stuScore.txt / stuScore.log, parsed with the CsvTokenizer-based ScoreFileReader
+    private static final class ScoreFiles extends TextChangeTable<Score> {
+
+        ScoreFiles(DataSnapshot cache) {
+            super(ScoreFileReader.scoreFile(), ScoreFileReader.scoreLogFile(), cache, SCORE_CODEC);
+        }
+
+        @Override
+        protected List<Score> readRows() {
+            return ScoreFileReader.readScores();
+        }
+
+        @Override
+        protected long readChanges(long from, List<Score> changes) {
+            return ScoreFileReader.readScoreChangesFrom(from, changes);
+        }
+
+        @Override
+        protected String toLine(Score row) {
+            return ScoreFileWriter.toLine(row);
+        }
+    }
+
+    // <name>.txt / <name>.log with plain comma separated fields
+    private static final class CsvFiles extends TextChangeTable<String[]> {
+
+        CsvFiles(String name, DataSnapshot cache) {
+            super(new File(baseDataReader.DATA_DIR + name + ".txt"), new File(baseDataReader.DATA_DIR + name + ".log"),
+                    cache, CSV_CODEC);
+        }
+
+        @Override
+        protected List<String[]> readRows() {
+            return readCsv(snapshotFile().getName());
+        }
+
+        @Override
+        protected long readChanges(long from, List<String[]> changes) {
+            List<String> lines = new ArrayList<>();
+            long end = from;
+            try {
+                end = LogTail.readLines(logFile(), from, lines);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            for (String line : lines) {
+                changes.add(line.split(",", -1));
+            }
+            return end;
+        }
+
+        @Override
+        protected String toLine(String[] row) {
+            return String.join(",", row);
+        }
+    }
+
+}
@@ -7,8 +7,20 @@ import java.io.IOException;
 
 public class baseDataReader {
 
-    // File path
-    protected static final String DATA_DIR = "src/main/resources/data/";
+    // File path (-Dcrs.data.dir=<folder> points the whole application elsewhere, e.g. tests use a scratch copy)
+    protected static final String DATA_DIR = dataDir();
+
+    private static String dataDir() {
+        String dir = System.getProperty("crs.data.dir", "src/main/resources/data/");
+        return (dir.endsWith("/") || dir.endsWith(File.separator)) ? dir : dir + "/";
+    }
+
+    /**
+     * A file in the data folder.
+     */
+    public static File dataFile(String fileName) {
+        return new File(DATA_DIR + fileName);
+    }
     
     
     protected BufferedReader getReader(String fileName) {
@@ -26,4 +38,20 @@ public class baseDataReader {
         }
     }
 
+    // Alternative to getReader(): fields are parsed without building line Strings
+    protected CsvTokenizer openCsv(String fileName) {
+        File file = new File(DATA_DIR + fileName);
+        if (!file.exists()) {
+            System.err.println("FATAL ERROR: Data file not found: " + DATA_DIR + fileName);
+            return null;
+        }
+        try {
+            return CsvTokenizer.open(file);
+        } catch (IOException e) {
+            System.err.println("Error opening file: " + fileName);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
 }
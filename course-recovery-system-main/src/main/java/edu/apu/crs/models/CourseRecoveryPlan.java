@@ -6,8 +6,9 @@ public class CourseRecoveryPlan {
     private String studentId;
     private String courseId;
     private int studyWeek;
-    private String status;
-    private String recommendation;
+    // volatile: updated by one officer while other screens read it
+    private volatile String status;
+    private volatile String recommendation;
 
     public CourseRecoveryPlan(String planId, String studentId, String courseId, int studyWeek, String status, String recommendation) {
         this.planId = planId;
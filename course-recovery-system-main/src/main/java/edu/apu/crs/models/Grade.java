@@ -0,0 +1,54 @@
+package edu.apu.crs.models;
+
+// Letter grades used in stuScore.txt. Stored as a one-byte code in ScoreTable.
+
+public enum Grade {
+    A_PLUS("A+"),
+    A("A"),
+    B_PLUS("B+"),
+    B("B"),
+    C_PLUS("C+"),
+    C("C"),
+    C_MINUS("C-"),
+    D("D"),
+    F("F");
+
+    private static final Grade[] VALUES = values();
+
+    private final String label;
+
+    Grade(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @param label Grade as written in the data file, e.g. "B+".
+     * @return The matching grade, or null if the label is not a known grade.
+     */
+    public static Grade fromLabel(String label) {
+        if (label == null) return null;
+        String trimmed = label.trim();
+        for (Grade g : VALUES) {
+            if (g.label.equalsIgnoreCase(trimmed)) return g;
+        }
+        return null;
+    }
+
+    // byte code: ordinal, -1 for "no known grade"
+    public static byte codeOf(Grade grade) {
+        return (byte) (grade == null ? -1 : grade.ordinal());
+    }
+
+    public static Grade fromCode(byte code) {
+        return (code < 0 || code >= VALUES.length) ? null : VALUES[code];
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -7,20 +7,31 @@ public class Score {
     private int semester;
     private int assignmentScore;
     private int examScore;
-    private String grade;
+    // grade and status are enums (one shared instance each) instead of per-row Strings
+    private Grade grade;
+    private String otherGrade;     // only set when the label is not a known Grade
     private double gradePoint;
-    private String status;
+    private ScoreStatus status;
+    private String otherStatus;    // the label as read, only set when it is not exactly PASS or FAIL
 
     public Score(String studentId, String courseId, int attempt, int semester,
         int assignmentScore, int examScore, String grade, double gradePoint, String status) {
 
+        this(studentId, courseId, attempt, semester, assignmentScore, examScore,
+             grade, gradePoint, (ScoreStatus) null);
+        setstatus(status);
+        }
+
+    public Score(String studentId, String courseId, int attempt, int semester,
+        int assignmentScore, int examScore, String grade, double gradePoint, ScoreStatus status) {
+
         this.studentId = studentId;
         this.courseId = courseId;
         this.attempt = attempt;
         this.semester = semester;
         this.assignmentScore = assignmentScore;
         this.examScore = examScore;
-        this.grade = grade;
+        setgrade(grade);
         this.gradePoint = gradePoint;
         this.status = status;
         }
@@ -45,14 +56,24 @@ public class Score {
         return this.examScore;
     }
     public String getgrade() {
-        return this.grade;
+        return (this.grade != null) ? this.grade.getLabel() : this.otherGrade;
     }
     public double getgradePoint() {
         return this.gradePoint;
     }
     public String getstatus() {
+        if (this.otherStatus != null) return this.otherStatus;
+        return (this.status != null) ? this.status.name() : "";
+    }
+    public Grade getGradeValue() {
+        return this.grade;
+    }
+    public ScoreStatus getStatusValue() {
         return this.status;
     }
+    public boolean isFail() {
+        return this.status == ScoreStatus.FAIL;
+    }
 
     // setters
     public void setstudentId(String studentId) {
@@ -74,24 +95,44 @@ public class Score {
         this.examScore = examScore;
     }
     public void setgrade(String grade) {
+        this.grade = Grade.fromLabel(grade);
+        this.otherGrade = (this.grade == null) ? grade : null;
+    }
+    public void setgrade(Grade grade) {
         this.grade = grade;
+        this.otherGrade = null;
     }
     public void setgradePoint(double gradePoint) {
         this.gradePoint = gradePoint;
     }
     public void setstatus(String status) {
+        this.status = ScoreStatus.fromLabel(status);
+        this.otherStatus = (this.status != null && this.status.name().equals(status)) ? null : status;
+    }
+    public void setstatus(ScoreStatus status) {
         this.status = status;
+        this.otherStatus = null;
+    }
+
+
+    // copies every field except studentId / courseId (used when a saved change replaces an attempt)
+    public void copyResultFrom(Score other) {
+        this.attempt = other.attempt;
+        this.semester = other.semester;
+        this.assignmentScore = other.assignmentScore;
+        this.examScore = other.examScore;
+        this.grade = other.grade;
+        this.otherGrade = other.otherGrade;
+        this.gradePoint = other.gradePoint;
+        this.status = other.status;
+        this.otherStatus = other.otherStatus;
     }
 
 
     public String updateStatus() {
 
-            if (this.gradePoint >= 2.0) {
-                this.status = "PASS";
-            } else {
-                this.status = "FAIL";
-            }
-            return this.status;
+            setstatus(ScoreStatus.fromGradePoint(this.gradePoint));
+            return this.status.name();
     }
     
     
@@ -100,36 +141,36 @@ public class Score {
         
         double totalscore = this.assignmentScore * 0.4 + this.examScore * 0.6;
         if (totalscore >= 80) {
-            this.grade= "A+";
+            setgrade(Grade.A_PLUS);
             this.gradePoint = 4.0;
 
         } else if (79 <= totalscore && totalscore >= 75) {
-            this.grade= "A";
+            setgrade(Grade.A);
             this.gradePoint = 3.7;
 
         } else if (74 <= totalscore && totalscore >= 70) {
-            this.grade= "B+";
+            setgrade(Grade.B_PLUS);
             this.gradePoint = 3.3;
 
         } else if (69 <= totalscore && totalscore >= 65) {
-            this.grade= "B";
+            setgrade(Grade.B);
             this.gradePoint = 3.0;
 
         } else if (64 <= totalscore && totalscore >= 60) {
-            this.grade= "C+";
+            setgrade(Grade.C_PLUS);
             this.gradePoint = 2.7;
 
         } else if (59 <= totalscore && totalscore >= 55) {
-            this.grade= "C";
+            setgrade(Grade.C);
             this.gradePoint = 2.3;
 
         } else if (54 <= totalscore && totalscore >= 50) {
-            this.grade= "C-";
+            setgrade(Grade.C_MINUS);
             this.gradePoint = 2.0;
 
         
         } else {
-            this.grade= "F";
+            setgrade(Grade.F);
             this.gradePoint = 0.0;
         }
         return this.gradePoint ;
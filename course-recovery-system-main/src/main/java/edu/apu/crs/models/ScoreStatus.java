@@ -0,0 +1,36 @@
+package edu.apu.crs.models;
+
+// PASS / FAIL of a score row. Fail checks compare this enum (or its byte code)
+// instead of calling "FAIL".equalsIgnoreCase(...) on every row.
+
+public enum ScoreStatus {
+    PASS,
+    FAIL;
+
+    private static final ScoreStatus[] VALUES = values();
+
+    /**
+     * @param label Status as written in the data file (case is ignored).
+     * @return PASS, FAIL, or null if the label is neither.
+     */
+    public static ScoreStatus fromLabel(String label) {
+        if (label == null) return null;
+        String trimmed = label.trim();
+        if (trimmed.equalsIgnoreCase("PASS")) return PASS;
+        if (trimmed.equalsIgnoreCase("FAIL")) return FAIL;
+        return null;
+    }
+
+    public static ScoreStatus fromGradePoint(double gradePoint) {
+        return gradePoint >= 2.0 ? PASS : FAIL;
+    }
+
+    // byte code: ordinal, -1 for "no status"
+    public static byte codeOf(ScoreStatus status) {
+        return (byte) (status == null ? -1 : status.ordinal());
+    }
+
+    public static ScoreStatus fromCode(byte code) {
+        return (code < 0 || code >= VALUES.length) ? null : VALUES[code];
+    }
+}
@@ -0,0 +1,348 @@
+package edu.apu.crs.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Score rows stored column by column (struct of arrays) instead of one Score object per row.
+// Student and course IDs are dictionary-encoded to ordinals, grade and status are byte codes,
+// so a row costs 14 bytes: student (int) | course (char) | attempt,semester,assignment,exam
+// packed one byte each (int) | grade point x100 (short) | grade (byte) | status (byte).
+// Grade / status code: the Grade or ScoreStatus ordinal, -1 for an empty label, or -2 - n for
+// a label that is neither (n = its index in a third dictionary, so it is kept word for word).
+// Rows are also indexed by student ordinal, so one student's attempts are found without a scan.
+
+public class ScoreTable {
+
+    // dictionaries: ordinal -> ID and ID -> ordinal
+    private final List<String> studentIds = new ArrayList<>();
+    private final Map<String, Integer> studentOrdinals = new HashMap<>();
+    private final List<String> courseIds = new ArrayList<>();
+    private final Map<String, Integer> courseOrdinals = new HashMap<>();
+    private final List<String> otherLabels = new ArrayList<>();
+    private final Map<String, Integer> otherLabelOrdinals = new HashMap<>();
+
+    private static final int MAX_OTHER_LABELS = 127;   // codes -2 .. -128
+    private static final byte FAIL_CODE = (byte) ScoreStatus.FAIL.ordinal();
+
+    // columns
+    private int size = 0;
+    private int[] studentCol;
+    private char[] courseCol;
+    private int[] packedCol;
+    private short[] gradePointCol;
+    private byte[] gradeCol;
+    private byte[] statusCol;
+
+    // student ordinal -> row indexes in row order (the first rowCounts[ordinal] entries are used)
+    private int[][] studentRows = new int[16][];
+    private int[] rowCounts = new int[16];
+
+    public ScoreTable() {
+        this(1024);
+    }
+
+    public ScoreTable(int initialCapacity) {
+        int cap = Math.max(16, initialCapacity);
+        studentCol = new int[cap];
+        courseCol = new char[cap];
+        packedCol = new int[cap];
+        gradePointCol = new short[cap];
+        gradeCol = new byte[cap];
+        statusCol = new byte[cap];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends one row.
+     * @return The row index.
+     * @throws IllegalArgumentException If attempt, semester or a mark is outside 0..255, or the table
+     *         is out of course ordinals or label codes (nothing is added).
+     */
+    public int add(String studentId, String courseId, int attempt, int semester, int assignmentScore,
+                   int examScore, double gradePoint, String grade, String status) {
+        // everything that can reject the row runs before anything is added
+        int packed = pack(attempt, semester, assignmentScore, examScore);
+        Grade knownGrade = Grade.fromLabel(grade);
+        ScoreStatus knownStatus = ScoreStatus.fromLabel(status);
+        String newGrade = isNewLabel(knownGrade == null ? grade : null) ? grade : null;
+        String newStatus = isNewLabel(knownStatus == null ? status : null) && !status.equals(newGrade) ? status : null;
+        if (otherLabels.size() + (newGrade != null ? 1 : 0) + (newStatus != null ? 1 : 0) > MAX_OTHER_LABELS) {
+            throw new IllegalArgumentException("too many grade / status labels: " + grade + ", " + status);
+        }
+        int course = courseOrdinal(courseId);
+
+        byte gradeCode = (knownGrade != null) ? Grade.codeOf(knownGrade) : labelCode(grade);
+        byte statusCode = (knownStatus != null) ? ScoreStatus.codeOf(knownStatus) : labelCode(status);
+        return addEncoded(studentOrdinal(studentId), course, packed,
+                (short) Math.round(gradePoint * 100), gradeCode, statusCode);
+    }
+
+    public int add(Score s) {
+        return add(s.getstudentId(), s.getcourseId(), s.getattempt(), s.getsemester(), s.getassignmentScore(),
+                s.getexamScore(), s.getgradePoint(), s.getgrade(), s.getstatus());
+    }
+
+    /**
+     * Appends one row whose values are already encoded (used when loading a binary file).
+     * @throws IllegalArgumentException If the course ordinal does not fit the course column.
+     */
+    public int addEncoded(int studentOrdinal, int courseOrdinal, int packed, short gradePointX100,
+                          byte gradeCode, byte statusCode) {
+        checkCourseOrdinal(courseOrdinal);
+        ensureCapacity(size + 1);
+        studentCol[size] = studentOrdinal;
+        courseCol[size] = (char) courseOrdinal;
+        packedCol[size] = packed;
+        gradePointCol[size] = gradePointX100;
+        gradeCol[size] = gradeCode;
+        statusCol[size] = statusCode;
+        indexRow(studentOrdinal, size);
+        return size++;
+    }
+
+    /* ===================== row access ===================== */
+
+    public String getStudentId(int row) {
+        return studentIds.get(studentCol[row]);
+    }
+
+    public String getCourseId(int row) {
+        return courseIds.get(courseCol[row]);
+    }
+
+    public int getAttempt(int row) {
+        return (packedCol[row] >>> 24) & 0xFF;
+    }
+
+    public int getSemester(int row) {
+        return (packedCol[row] >>> 16) & 0xFF;
+    }
+
+    public int getAssignmentScore(int row) {
+        return (packedCol[row] >>> 8) & 0xFF;
+    }
+
+    public int getExamScore(int row) {
+        return packedCol[row] & 0xFF;
+    }
+
+    public double getGradePoint(int row) {
+        return gradePointCol[row] / 100.0;
+    }
+
+    public Grade getGrade(int row) {
+        return Grade.fromCode(gradeCol[row]);
+    }
+
+    public ScoreStatus getStatus(int row) {
+        return ScoreStatus.fromCode(statusCol[row]);
+    }
+
+    // byte compare, no String involved
+    public boolean isFail(int row) {
+        return statusCol[row] == FAIL_CODE;
+    }
+
+    // the grade as it was added ("" if it was empty)
+    public String getGradeLabel(int row) {
+        Grade grade = getGrade(row);
+        return (grade != null) ? grade.getLabel() : otherLabel(gradeCol[row]);
+    }
+
+    public String getStatusLabel(int row) {
+        ScoreStatus status = getStatus(row);
+        return (status != null) ? status.name() : otherLabel(statusCol[row]);
+    }
+
+    /**
+     * Builds a Score object for one row.
+     */
+    public Score toScore(int row) {
+        return new Score(getStudentId(row), getCourseId(row), getAttempt(row), getSemester(row),
+                getAssignmentScore(row), getExamScore(row), getGradeLabel(row),
+                getGradePoint(row), getStatusLabel(row));
+    }
+
+    /**
+     * Returns every row of one student for one course, in row order
+     * (O(rows of that student), through the student index).
+     */
+    public List<Score> attemptsOf(String studentId, String courseId) {
+        Integer st = studentOrdinals.get(studentId);
+        Integer co = courseOrdinals.get(courseId);
+        if (st == null || co == null || st >= rowCounts.length) return Collections.emptyList();
+
+        List<Score> result = new ArrayList<>();
+        int[] rows = studentRows[st];
+        for (int i = 0; i < rowCounts[st]; i++) {
+            if (courseCol[rows[i]] == co) {
+                result.add(toScore(rows[i]));
+            }
+        }
+        return result;
+    }
+
+    /* ===================== encoded access (binary files) ===================== */
+
+    public int getStudentOrdinal(int row) {
+        return studentCol[row];
+    }
+
+    public int getCourseOrdinal(int row) {
+        return courseCol[row];
+    }
+
+    public int getPacked(int row) {
+        return packedCol[row];
+    }
+
+    public short getGradePointX100(int row) {
+        return gradePointCol[row];
+    }
+
+    public byte getGradeCode(int row) {
+        return gradeCol[row];
+    }
+
+    public byte getStatusCode(int row) {
+        return statusCol[row];
+    }
+
+    public List<String> getStudentIds() {
+        return Collections.unmodifiableList(studentIds);
+    }
+
+    public List<String> getCourseIds() {
+        return Collections.unmodifiableList(courseIds);
+    }
+
+    // grade / status labels behind the negative codes below -1
+    public List<String> getOtherLabels() {
+        return Collections.unmodifiableList(otherLabels);
+    }
+
+    public int studentOrdinal(String studentId) {
+        return ordinal(studentId, studentIds, studentOrdinals);
+    }
+
+    /**
+     * @throws IllegalArgumentException If the ID is new and the course column has no ordinal left for it.
+     */
+    public int courseOrdinal(String courseId) {
+        Integer ord = courseOrdinals.get(courseId);
+        if (ord != null) return ord;
+        checkCourseOrdinal(courseIds.size());
+        return ordinal(courseId, courseIds, courseOrdinals);
+    }
+
+    /**
+     * Returns the code of a grade / status label that is neither a Grade nor a ScoreStatus.
+     * @throws IllegalArgumentException If the label is new and all label codes are used.
+     */
+    public byte labelCode(String label) {
+        if (label == null || label.isEmpty()) return -1;
+        if (isNewLabel(label) && otherLabels.size() >= MAX_OTHER_LABELS) {
+            throw new IllegalArgumentException("too many grade / status labels: " + label);
+        }
+        return (byte) (-2 - ordinal(label, otherLabels, otherLabelOrdinals));
+    }
+
+    /**
+     * Drops rows and dictionary entries added after the given sizes (e.g. a half-read segment).
+     */
+    public void truncate(int rows, int students, int courses, int labels) {
+        // rows are indexed in row order, so the dropped ones are at the end of their student's list
+        for (int row = size - 1; row >= rows; row--) {
+            rowCounts[studentCol[row]]--;
+        }
+        size = Math.min(size, rows);
+        truncate(studentIds, studentOrdinals, students);
+        truncate(courseIds, courseOrdinals, courses);
+        truncate(otherLabels, otherLabelOrdinals, labels);
+    }
+
+    /* ===================== internals ===================== */
+
+    /**
+     * Packs the four small fields one byte each.
+     * @throws IllegalArgumentException If a value is outside 0..255 (it would not survive the round trip).
+     */
+    public static int pack(int attempt, int semester, int assignment, int exam) {
+        return (checkByte("attempt", attempt) << 24) | (checkByte("semester", semester) << 16)
+                | (checkByte("assignment score", assignment) << 8) | checkByte("exam score", exam);
+    }
+
+    private static int checkByte(String field, int value) {
+        if (value < 0 || value > 255) throw new IllegalArgumentException(field + " out of range 0..255: " + value);
+        return value;
+    }
+
+    private static void checkCourseOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal > Character.MAX_VALUE) {
+            throw new IllegalArgumentException("course ordinal out of range 0.." + (int) Character.MAX_VALUE + ": " + ordinal);
+        }
+    }
+
+    private boolean isNewLabel(String label) {
+        return label != null && !label.isEmpty() && !otherLabelOrdinals.containsKey(label);
+    }
+
+    private String otherLabel(byte code) {
+        int n = -2 - code;
+        return (n >= 0 && n < otherLabels.size()) ? otherLabels.get(n) : "";
+    }
+
+    private static int ordinal(String id, List<String> ids, Map<String, Integer> ordinals) {
+        Integer ord = ordinals.get(id);
+        if (ord == null) {
+            ord = ids.size();
+            ids.add(id);
+            ordinals.put(id, ord);
+        }
+        return ord;
+    }
+
+    private static void truncate(List<String> values, Map<String, Integer> ordinals, int keep) {
+        while (values.size() > keep) {
+            ordinals.remove(values.remove(values.size() - 1));
+        }
+    }
+
+    private void indexRow(int studentOrdinal, int row) {
+        if (studentOrdinal >= rowCounts.length) {
+            int cap = Math.max(studentOrdinal + 1, rowCounts.length * 2);
+            studentRows = Arrays.copyOf(studentRows, cap);
+            rowCounts = Arrays.copyOf(rowCounts, cap);
+        }
+        int[] rows = studentRows[studentOrdinal];
+        int count = rowCounts[studentOrdinal];
+        if (rows == null) {
+            rows = new int[4];
+            studentRows[studentOrdinal] = rows;
+        } else if (count == rows.length) {
+            rows = Arrays.copyOf(rows, count * 2);
+            studentRows[studentOrdinal] = rows;
+        }
+        rows[count] = row;
+        rowCounts[studentOrdinal] = count + 1;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= studentCol.length) return;
+        int cap = Math.max(needed, studentCol.length * 2);
+        studentCol = Arrays.copyOf(studentCol, cap);
+        courseCol = Arrays.copyOf(courseCol, cap);
+        packedCol = Arrays.copyOf(packedCol, cap);
+        gradePointCol = Arrays.copyOf(gradePointCol, cap);
+        gradeCol = Arrays.copyOf(gradeCol, cap);
+        statusCol = Arrays.copyOf(statusCol, cap);
+    }
+
+}
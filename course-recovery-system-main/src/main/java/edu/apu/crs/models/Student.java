@@ -1,9 +1,12 @@
 
 package edu.apu.crs.models;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Student {
     private String studentId;
@@ -15,12 +18,25 @@ public class Student {
     // AGGREGATION/COMPOSITION
     // each Student object holds multiple of their Score objects.
 
-    private List<Score> scores = new ArrayList<>();
+    // copy-on-write: screens can iterate while a recovery result is being recorded
+    private List<Score> scores = new CopyOnWriteArrayList<>();
 
     
-    // temporary field for Eligibility check
-    private double currentCGPA = 0.0;
-    private int failedCourseCount = 0;
+    // temporary field for Eligibility check (volatile: read by other threads without locking)
+    private volatile double currentCGPA = 0.0;
+    private volatile int failedCourseCount = 0;
+    // running credit-weighted sums behind currentCGPA, so one score change is O(1).
+    // Grade points are kept in hundredths so adding and removing a score never drifts.
+    private long gradePointsXCredits = 0;
+    private int creditHours = 0;
+    // verdict cached by EligibilityService, so the GUI does not re-apply the rules
+    private volatile boolean eligibleToProgress = false;
+
+    // latest attempt per course + failed courses, built on first use and reused until
+    // the scores change (every change goes through addScore(s) or the running totals).
+    // The version keeps a view built during a change from being reused after it.
+    private volatile int scoresVersion = 0;
+    private volatile LatestAttempts latestAttempts;
 
     public Student(String studentId, String studentName, String email, String ProgramID, int currentSemester) {
         this.studentId = studentId;
@@ -58,6 +74,12 @@ public class Student {
     public int getFailedCourseCount() {
         return failedCourseCount;
     }
+    public boolean isEligibleToProgress() {
+        return eligibleToProgress;
+    }
+    public boolean needsRecovery() {
+        return !eligibleToProgress || failedCourseCount > 0;
+    }
 
 
     // setter
@@ -81,6 +103,11 @@ public class Student {
     // method
     public void addScore(Score score) {
         this.scores.add(score);
+        scoresChanged();
+    }
+    public void addScores(List<Score> scores) {
+        this.scores.addAll(scores);
+        scoresChanged();
     }
 
     // *NEW CALCULATED DATA SETTERS:*
@@ -90,6 +117,69 @@ public class Student {
     public void setFailedCourseCount(int failedCourseCount) {
         this.failedCourseCount = failedCourseCount;
     }
+    public void setEligibleToProgress(boolean eligibleToProgress) {
+        this.eligibleToProgress = eligibleToProgress;
+    }
+
+
+    // *RUNNING TOTALS* (kept up to date by EligibilityService)
+    public void addToTotals(double gradePoint, int credits, boolean failed) {
+        gradePointsXCredits += Math.round(gradePoint * 100) * credits;
+        creditHours += credits;
+        if (failed) failedCourseCount++;
+        updateCGPAFromTotals();
+        scoresChanged();
+    }
+    public void removeFromTotals(double gradePoint, int credits, boolean failed) {
+        gradePointsXCredits -= Math.round(gradePoint * 100) * credits;
+        creditHours -= credits;
+        if (failed) failedCourseCount--;
+        updateCGPAFromTotals();
+        scoresChanged();
+    }
+    public void clearTotals() {
+        gradePointsXCredits = 0;
+        creditHours = 0;
+        failedCourseCount = 0;
+        currentCGPA = 0.0;
+        scoresChanged();
+    }
+
+    // CGPA rounded to 2 decimals, same as EligibilityService.calculateCGPA
+    private void updateCGPAFromTotals() {
+        currentCGPA = (creditHours == 0) ? 0.0 : Math.round((double) gradePointsXCredits / creditHours) / 100.0;
+    }
+
+
+    // *MEMOIZED SCORE VIEWS*
+    private void scoresChanged() {
+        scoresVersion++;
+        latestAttempts = null;
+    }
+
+    private LatestAttempts latestAttempts() {
+        int version = scoresVersion;
+        LatestAttempts view = latestAttempts;
+        if (view == null || view.version != version) {
+            view = new LatestAttempts(scores, version);
+            latestAttempts = view;
+        }
+        return view;
+    }
+
+    /**
+     * @return CourseID -> the attempt with the highest attempt number (read-only, cached).
+     */
+    public Map<String, Score> getLatestAttempts() {
+        return latestAttempts().byCourse;
+    }
+
+    /**
+     * @return IDs of the courses whose latest attempt is a FAIL, sorted (read-only, cached).
+     */
+    public List<String> getFailedCourseIds() {
+        return latestAttempts().failedCourseIds;
+    }
 
 
     /// wan teng look thisssssss
@@ -98,13 +188,43 @@ public class Student {
      * Retrieves a map of failed courses (CourseID -> CourseName) for this student.
      * This relies on having the Course Name data available elsewhere (e.g., in the GUI or another service).
      * For now, we return a map of CourseID to a dummy name.
-     * @return Map of CourseID to status ("FAIL").
+     * @return Map of CourseID to status ("FAIL"), for courses whose latest attempt failed.
      */
     public Map<String, String> getFailedCourseCodes() {
-        return this.scores.stream()
-            .filter(score -> "FAIL".equalsIgnoreCase(score.getstatus()))
-            // Map CourseID to the status for display (or integrate with Course model for Name lookup later)
-            .collect(Collectors.toMap(Score::getcourseId, score -> score.getgrade() + " (" + score.getgradePoint() + ")"));
+        return latestAttempts().failedCourseCodes;
+    }
+
+    // immutable once built
+    private static final class LatestAttempts {
+        final int version;
+        final Map<String, Score> byCourse;
+        final List<String> failedCourseIds;
+        final Map<String, String> failedCourseCodes;
+
+        LatestAttempts(List<Score> scores, int version) {
+            this.version = version;
+            Map<String, Score> latest = new HashMap<>();
+            for (Score sc : scores) {
+                Score old = latest.get(sc.getcourseId());
+                if (old == null || sc.getattempt() > old.getattempt()) {
+                    latest.put(sc.getcourseId(), sc);
+                }
+            }
+            List<String> failed = new ArrayList<>();
+            for (Score sc : latest.values()) {
+                if (sc.isFail()) failed.add(sc.getcourseId());
+            }
+            Collections.sort(failed);
+            Map<String, String> codes = new LinkedHashMap<>();
+            for (String courseId : failed) {
+                Score sc = latest.get(courseId);
+                // Map CourseID to the status for display (or integrate with Course model for Name lookup later)
+                codes.put(courseId, sc.getgrade() + " (" + sc.getgradePoint() + ")");
+            }
+            this.byCourse = Collections.unmodifiableMap(latest);
+            this.failedCourseIds = Collections.unmodifiableList(failed);
+            this.failedCourseCodes = Collections.unmodifiableMap(codes);
+        }
     }
 }
 
@@ -1,5 +1,11 @@
 package edu.apu.crs.service;
 
+import edu.apu.crs.dataIO.ChangeTable;
+import edu.apu.crs.dataIO.DataFileLock;
+import edu.apu.crs.dataIO.DataStore;
+import edu.apu.crs.dataIO.IdDictionary;
+import edu.apu.crs.dataIO.SafeFileWriter;
+import edu.apu.crs.dataIO.baseDataReader;
 import edu.apu.crs.models.Course;
 import edu.apu.crs.models.CourseRecoveryPlan;
 import edu.apu.crs.models.Milestone;
@@ -13,77 +19,91 @@ import java.util.*;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 public class CourseRecoveryService {
 
     private static final String DATA_FOLDER        = "data/";
-    private static final String COURSE_LIST_FILE   = DATA_FOLDER + "courseList.txt";
-    private static final String STUDENT_LIST_FILE  = DATA_FOLDER + "stuList.txt";
-    private static final String SCORE_FILE         = DATA_FOLDER + "stuScore.txt";
-    private static final String PROGRAM_LIST_FILE  = DATA_FOLDER + "programList.txt";
-    private static final String PROGRAM_FILE       = DATA_FOLDER + "program.txt";
-    private static final String MILESTONE_FILE     = DATA_FOLDER + "milestoneList.txt";
-    private static final String RECOVERY_PLAN_FILE = DATA_FOLDER + "courseRecoveryPlan.txt";
-    private static final String CUSTOM_MILESTONE_FILE = DATA_FOLDER + "recoveryMilestoneCustom.txt";
-
-    private Map<String, Course> courses = new HashMap<>();
-    private Map<String, Student> students = new HashMap<>();
-    private List<Score> scores = new ArrayList<>();
+    private static final String PLAN_ID_SEQUENCE_FILE = DATA_FOLDER + "courseRecoveryPlan.seq";
+
+    // courses / students / programs (and scores, via repository) are shared with MasterDataService via DataRepository
+    private final DataRepository repository;
+    // plans and custom milestones are read and saved through the repository's DataStore
+    private final DataStore store;
+    private final ChangeTable<String[]> planTable;
+    private final ChangeTable<String[]> customTable;
+    private final Map<String, Course> courses;
+    private final Map<String, Student> students;
+    private final Map<String, Program> programs;
+
     private List<Milestone> milestones = new ArrayList<>();
-    private List<CourseRecoveryPlan> recoveryPlans = new ArrayList<>();
-    private Map<String, Program> programs = new HashMap<>();
+    // template milestones per course, sorted by week once at load time
+    private Map<String, List<Milestone>> milestonesByCourse = new HashMap<>();
+    // Threading: every change to a student's plans, milestones or scores runs under
+    // repository.studentLock(studentId), so officers working on different students do not wait
+    // for each other. Readers never lock: the maps are concurrent and the per-key lists are
+    // copy-on-write, so a screen always iterates a consistent list while a write happens.
+    //
+    // Several clients may share one data folder. Each data set is read and saved under its
+    // ChangeTable lock; before saving (and in reloadChangedFiles) a client merges the changes
+    // other clients saved, and reloads a data set only when another client compacted it.
+
+    // recoveryPlans maps each row to its insertion number (file order for saving);
+    // the maps below are lookup indexes over the same rows
+    private final Map<CourseRecoveryPlan, Long> recoveryPlans = new ConcurrentHashMap<>();
+    private final AtomicLong planRowSequence = new AtomicLong();
+    private final Map<String, List<CourseRecoveryPlan>> plansByPlanId = new ConcurrentHashMap<>();
+    private final Map<String, List<CourseRecoveryPlan>> plansByStudentCourse = new ConcurrentHashMap<>();
+    private final Map<String, CourseRecoveryPlan> planWeekIndex = new ConcurrentHashMap<>();
+
+    // plan changes not yet saved, handed to planTable by saveRecoveryPlans()
+    // (the list is guarded by synchronized (pendingPlanLog))
+    private static final int PLAN_LOG_COMPACT_THRESHOLD = 500;
+    private final List<String> pendingPlanLog = new ArrayList<>();
+    // highest Pnnn number seen so far (loaded rows, .seq file, own blocks); never lowered
+    private final AtomicInteger lastPlanNumber = new AtomicInteger(0);
+    // Pnnn numbers reserved for this client in PLAN_ID_SEQUENCE_FILE (other clients continue after `to`)
+    private static final int PLAN_ID_BLOCK = 32;
+    private volatile PlanIdBlock planIdBlock = new PlanIdBlock(1, 0);   // nothing reserved yet
     private Map<String, List<String>> programCourses = new HashMap<>();
-    private List<String[]> customMilestones = new ArrayList<>();
+    // plan-specific milestone overrides; edits not yet saved are handed to customTable
+    private final CustomMilestoneStore customMilestones = new CustomMilestoneStore();
+    private static final int CUSTOM_LOG_COMPACT_THRESHOLD = 500;
+    private final List<String> pendingCustomLog = new ArrayList<>();   // guarded like pendingPlanLog
 
     public CourseRecoveryService() {
-        loadCourses();
-        loadPrograms();
+        this(DataRepository.getShared());
+    }
+
+    public CourseRecoveryService(DataRepository repository) {
+        this.repository = repository;
+        this.store      = repository.getStore();
+        this.planTable  = store.recoveryPlans();
+        this.customTable = store.customMilestones();
+        this.courses    = repository.getCourses();
+        this.students   = repository.getStudents();
+        this.programs   = repository.getPrograms();
+
         loadProgramCourses();
-        loadStudents();
-        loadScores();
         loadMilestones();
         loadRecoveryPlans();
         loadCustomMilestones();
+        store.checkpoint();
     }
 
-    /* ===================== 1. LOAD TXT FILES ===================== */
-
-    private void loadCourses() {
-        courses.clear();
-        for (String[] parts : readCsv(COURSE_LIST_FILE)) {
-            if (parts.length < 4) continue;
-
-            String courseId   = parts[0].trim();
-            String courseName = parts[1].trim();
-            int credits       = parseIntSafe(parts[2]);
-            int semester      = parseIntSafe(parts[3]);
-
-            Course course = new Course(courseId, courseName, credits, semester);
-            courses.put(courseId, course);
-        }
-    }
-
-    private void loadPrograms() {
-        programs.clear();
-        for (String[] parts : readCsv(PROGRAM_FILE)) {
-            if (parts.length < 2) continue;
-
-            String programId   = parts[0].trim();
-            String programName = parts[1].trim();
-
-            Program program = new Program(programId, programName);
-            programs.put(programId, program);
-        }
-    }
+    /* ===================== 1. LOAD FROM THE DATA STORE ===================== */
 
     private void loadProgramCourses() {
         programCourses.clear();
-        for (String[] parts : readCsv(PROGRAM_LIST_FILE)) {
+        for (String[] parts : store.readProgramCourses()) {
             if (parts.length < 2) continue;
 
-            String programId = parts[0].trim();
-            String courseId  = parts[1].trim();
+            String programId = IdDictionary.PROGRAMS.intern(parts[0]);
+            String courseId  = IdDictionary.COURSES.intern(parts[1]);
 
             List<String> list = programCourses.get(programId);
             if (list == null) {
@@ -94,150 +114,181 @@ public class CourseRecoveryService {
         }
     }
 
-    private void loadStudents() {
-        students.clear();
-        for (String[] parts : readCsv(STUDENT_LIST_FILE)) {
-            // stuList: studentId, name, email, programId, programName, currentSemester
-            if (parts.length < 6) continue;
-
-            String studentId    = parts[0].trim();
-            String studentName  = parts[1].trim();
-            String email        = parts[2].trim();
-            String programId    = parts[3].trim();
-            int currentSemester = parseIntSafe(parts[5]);
-
-            Student student = new Student(studentId, studentName, email, programId, currentSemester);
-            students.put(studentId, student);
-        }
-    }
-
-    private void loadScores() {
-        scores.clear();
-        for (String[] parts : readCsv(SCORE_FILE)) {
-            // stuScore: S001,C003,0,1,70,72,3.3,B+,PASS
-            if (parts.length < 9) continue;
-
-            String studentId    = parts[0].trim();
-            String courseId     = parts[1].trim();
-            int attempt         = parseIntSafe(parts[2]);
-            int semester        = parseIntSafe(parts[3]);
-            int assignmentScore = parseIntSafe(parts[4]);
-            int examScore       = parseIntSafe(parts[5]);
-            double gradePoint   = parseDoubleSafe(parts[6]);  // 3.3
-            String grade        = parts[7].trim();            // B+
-            String status       = parts[8].trim();            // PASS / FAIL
-
-            Score score = new Score(
-                    studentId,
-                    courseId,
-                    attempt,
-                    semester,
-                    assignmentScore,
-                    examScore,
-                    grade,
-                    gradePoint,
-                    status
-            );
-
-            scores.add(score);
-
-            Student stu = students.get(studentId);
-            if (stu != null) {
-                stu.addScore(score);
-            }
-        }
-
-        // 计算每个学生有多少门 FAIL
-        for (Student s : students.values()) {
-            int failed = (int) s.getScores().stream()
-                    .filter(sc -> "FAIL".equalsIgnoreCase(sc.getstatus()))
-                    .count();
-            s.setFailedCourseCount(failed);
-        }
-    }
-
     private void loadMilestones() {
         milestones.clear();
-        for (String[] parts : readCsv(MILESTONE_FILE)) {
+        milestonesByCourse.clear();
+        for (String[] parts : store.readMilestones()) {
             // CR001,C001,1,Review database notes
             if (parts.length < 4) continue;
 
             String templateId = parts[0].trim();
-            String courseId   = parts[1].trim();
+            String courseId   = IdDictionary.COURSES.intern(parts[1]);
             int week          = parseIntSafe(parts[2]);
             String task       = parts[3].trim();
 
             Milestone m = new Milestone(templateId, courseId, week, task);
             milestones.add(m);
+            milestonesByCourse.computeIfAbsent(courseId, k -> new ArrayList<>()).add(m);
+        }
+        // stable sort: rows of the same week keep their file order
+        for (List<Milestone> list : milestonesByCourse.values()) {
+            list.sort(Comparator.comparingInt(Milestone::getStudyWeek));
         }
     }
 
     private void loadRecoveryPlans() {
-        recoveryPlans.clear();
+        // rows and saved changes are read together so no other client can compact in between
+        planTable.withLock(() -> {
+            recoveryPlans.clear();
+            plansByPlanId.clear();
+            plansByStudentCourse.clear();
+            planWeekIndex.clear();
+            loadPlanSequence();
+
+            List<String[]> changes = new ArrayList<>();
+            for (String[] parts : planTable.load(changes)) { // rows of courseRecoveryPlan.txt
+                if (parts.length < 5) continue;
+
+                String planId    = parts[0].trim();
+                String studentId = IdDictionary.STUDENTS.intern(parts[1]);
+                String courseId  = IdDictionary.COURSES.intern(parts[2]);
+                int week         = parseIntSafe(parts[3]);
+                String status    = parts[4].trim();
+                String rec       = (parts.length > 5) ? joinTail(parts, 5) : "NA";
+
+                addPlanRow(new CourseRecoveryPlan(planId, studentId, courseId, week, status, rec));
+            }
 
-        for (String[] parts : readCsv(RECOVERY_PLAN_FILE)) { // RECOVERY_PLAN_FILE = "data/courseRecoveryPlan.txt"
-            if (parts.length < 5) continue;
+            replayPlanLog(changes);
+        });
+    }
 
-            String planId    = parts[0].trim();
-            String studentId = parts[1].trim();
-            String courseId  = parts[2].trim();
-            int week         = parseIntSafe(parts[3]);
-            String status    = parts[4].trim();
-            String rec       = (parts.length > 5) ? parts[5].trim() : "NA";
+    // 重放 snapshot 之后保存的改动（courseRecoveryPlan.log）
+    private void replayPlanLog(List<String[]> changes) {
+        pendingPlanLog.clear();
+        for (String[] parts : changes) {
+            applyLoggedPlanChange(parts);
+        }
+    }
 
-            recoveryPlans.add(new CourseRecoveryPlan(planId, studentId, courseId, week, status, rec));
+    /**
+     * Merges what other clients saved since this client last read the plans
+     * (caller holds the plan lock). Their changes are applied in place; the plans are
+     * only reloaded if another client compacted different rows into the store. Our
+     * unsaved edits are applied again on top, the order they will have once saved.
+     */
+    private void syncRecoveryPlans() {
+        List<String[]> rows = new ArrayList<>();
+        if (planTable.sync(rows)) {
+            reloadRecoveryPlans();
+            return;
+        }
+        if (rows.isEmpty()) return;
+
+        repository.withAllStudentsLocked(() -> {
+            for (String[] parts : rows) {
+                applyLoggedPlanChange(parts);
+            }
+            reapplyPendingPlanChanges();
+        });
+    }
+
+    private void reloadRecoveryPlans() {
+        repository.withAllStudentsLocked(() -> {
+            List<String> unsaved;
+            synchronized (pendingPlanLog) {
+                unsaved = new ArrayList<>(pendingPlanLog);
+            }
+            loadRecoveryPlans();
+            synchronized (pendingPlanLog) {
+                pendingPlanLog.addAll(unsaved);
+            }
+            reapplyPendingPlanChanges();
+        });
+    }
+
+    private void reapplyPendingPlanChanges() {
+        synchronized (pendingPlanLog) {
+            for (String entry : pendingPlanLog) {
+                applyLoggedPlanChange(entry.split(",", -1));
+            }
+        }
+    }
+
+    /**
+     * Applies one log line. Every operation is idempotent, so replaying a log that was
+     * already folded into the snapshot (crash during compaction) is harmless.
+     * @return false if the line is malformed (e.g. torn last line) and was skipped.
+     */
+    private boolean applyLoggedPlanChange(String[] parts) {
+        if (parts.length < 3) return false;
+        String op = parts[0].trim();
+        String planId = parts[1].trim();
+
+        switch (op) {
+            case "C": // C,planId,studentId,courseId,week,status,recommendation
+                if (parts.length < 7) return false;
+                applyCreatePlanRow(new CourseRecoveryPlan(planId, IdDictionary.STUDENTS.intern(parts[2]),
+                        IdDictionary.COURSES.intern(parts[3]),
+                        parseIntSafe(parts[4]), parts[5].trim(), joinTail(parts, 6)));
+                return true;
+            case "S": // S,planId,courseId,week,status
+                if (parts.length < 5) return false;
+                applyStatus(planId, IdDictionary.COURSES.intern(parts[2]), parseIntSafe(parts[3]), joinTail(parts, 4));
+                return true;
+            case "R": // R,planId,courseId,week,recommendation
+                if (parts.length < 5) return false;
+                applyRecommendation(planId, IdDictionary.COURSES.intern(parts[2]), parseIntSafe(parts[3]), joinTail(parts, 4));
+                return true;
+            case "P": // P,planId,recommendation   (plan-level, first row)
+                applyPlanRecommendation(planId, joinTail(parts, 2));
+                return true;
+            case "D": // D,planId,studentId,courseId,week
+                if (parts.length < 5) return false;
+                applyRemovePlanWeek(planId, IdDictionary.STUDENTS.intern(parts[2]),
+                        IdDictionary.COURSES.intern(parts[3]), parseIntSafe(parts[4]));
+                return true;
+            default:
+                return false;
         }
     }
 
     /* ===================== 2. QUERY METHODS ===================== */
 
     public List<Student> getStudentsWithFailedCourses() {
+        // every student with a failed course is in the (ID-sorted) needs-recovery set
         List<Student> result = new ArrayList<>();
-        for (Student s : students.values()) {
+        for (Student s : repository.getEligibilityService().getStudentsNeedingRecovery()) {
             if (s.getFailedCourseCount() > 0) {
                 result.add(s);
             }
         }
-        result.sort(Comparator.comparing(Student::getStudentId));
         return result;
     }
 
+    /**
+     * Every recorded attempt of the course, oldest first (from the score history).
+     */
+    public List<Score> getAttemptHistory(String studentId, String courseId) {
+        return repository.getAttemptHistory(studentId, courseId);
+    }
+
     public List<Course> getFailedCoursesForStudent(String studentId) {
         List<Course> result = new ArrayList<>();
         Student stu = students.get(studentId);
         if (stu == null) return result;
 
-        // key = courseId, value = latest Score (max attempt)
-        Map<String, Score> latestByCourse = new HashMap<>();
-        for (Score sc : stu.getScores()) {
-            String cid = sc.getcourseId();
-            Score old = latestByCourse.get(cid);
-            if (old == null || sc.getattempt() > old.getattempt()) {
-                latestByCourse.put(cid, sc);
-            }
+        // courses whose latest attempt is FAIL, memoized on the student and already sorted
+        for (String courseId : stu.getFailedCourseIds()) {
+            Course c = courses.get(courseId);
+            if (c != null) result.add(c);
         }
-
-        // only keep those whose latest is FAIL
-        for (Map.Entry<String, Score> e : latestByCourse.entrySet()) {
-            if ("FAIL".equalsIgnoreCase(e.getValue().getstatus())) {
-                Course c = courses.get(e.getKey());
-                if (c != null) result.add(c);
-            }
-        }
-
-        result.sort(Comparator.comparing(Course::getCourseId));
         return result;
     }
 
     public List<Milestone> getMilestonesForCourse(String courseId) {
-        List<Milestone> result = new ArrayList<>();
-        for (Milestone m : milestones) {
-            if (courseId.equals(m.getCourseId())) {
-                result.add(m);
-            }
-        }
-        result.sort(Comparator.comparingInt(Milestone::getStudyWeek));
-        return result;
+        List<Milestone> list = milestonesByCourse.get(courseId);
+        return (list == null) ? new ArrayList<>() : new ArrayList<>(list);
     }
 
     /**
@@ -246,24 +297,26 @@ public class CourseRecoveryService {
      * UI 如果要拿完整 weeks，请用下面新增的 getRecoveryPlanEntries(...)
      */
     public CourseRecoveryPlan getOrCreateRecoveryPlan(String studentId, String courseId) {
-        for (CourseRecoveryPlan plan : recoveryPlans) {
-            if (studentId.equals(plan.getStudentId())
-                    && courseId.equals(plan.getCourseId())) {
-                return plan;
+        synchronized (repository.studentLock(studentId)) {   // two officers -> still one plan
+            List<CourseRecoveryPlan> existing = plansByStudentCourse.get(studentCourseKey(studentId, courseId));
+            CourseRecoveryPlan first = (existing == null) ? null : firstOf(existing);
+            if (first != null) {
+                return first;
             }
-        }
 
-        String newPlanId = generateNextPlanId();
-        CourseRecoveryPlan newPlan = new CourseRecoveryPlan(
-                newPlanId,
-                studentId,
-                courseId,
-                1,
-                "Not Started",
-                "NA"
-        );
-        recoveryPlans.add(newPlan);
-        return newPlan;
+            String newPlanId = generateNextPlanId();
+            CourseRecoveryPlan newPlan = new CourseRecoveryPlan(
+                    newPlanId,
+                    studentId,
+                    courseId,
+                    1,
+                    "Not Started",
+                    "NA"
+            );
+            addPlanRow(newPlan);
+            logCreate(newPlan);
+            return newPlan;
+        }
     }
 
     /* ===================== ✅ 新增：给 Recovery Panel 用 ===================== */
@@ -271,30 +324,34 @@ public class CourseRecoveryService {
     // 1) 取某学生某课程的所有 week plan entries（按 week 排序）
     public List<CourseRecoveryPlan> getRecoveryPlanEntries(String studentId, String courseId) {
         List<CourseRecoveryPlan> result = new ArrayList<>();
-        for (CourseRecoveryPlan p : recoveryPlans) {
-            if (studentId.equals(p.getStudentId()) && courseId.equals(p.getCourseId())) {
-                result.add(p);
-            }
-        }
+        List<CourseRecoveryPlan> rows = plansByStudentCourse.get(studentCourseKey(studentId, courseId));
+        if (rows != null) result.addAll(rows);
         result.sort(Comparator.comparingInt(CourseRecoveryPlan::getStudyWeek));
         return result;
     }
 
     // 2) 确保某 planId + studentId + courseId + week 存在（没有就创建一行）
     public CourseRecoveryPlan getOrCreatePlanWeek(String planId, String studentId, String courseId, int week) {
-        for (CourseRecoveryPlan p : recoveryPlans) {
-            if (planId.equals(p.getPlanId())
-                    && studentId.equals(p.getStudentId())
-                    && courseId.equals(p.getCourseId())
-                    && p.getStudyWeek() == week) {
+        synchronized (repository.studentLock(studentId)) {
+            CourseRecoveryPlan p = planWeekIndex.get(planWeekKey(planId, courseId, week));
+            if (p != null && studentId.equals(p.getStudentId())) {
                 return p;
             }
+            if (p != null) {
+                // same plan/course/week indexed under another student -> fall back to that student's rows
+                for (CourseRecoveryPlan row : plansByStudentCourse.getOrDefault(studentCourseKey(studentId, courseId), Collections.emptyList())) {
+                    if (planId.equals(row.getPlanId()) && row.getStudyWeek() == week) {
+                        return row;
+                    }
+                }
+            }
+            CourseRecoveryPlan created = new CourseRecoveryPlan(
+                    planId, studentId, courseId, week, "Not Started", "NA"
+            );
+            addPlanRow(created);
+            logCreate(created);
+            return created;
         }
-        CourseRecoveryPlan created = new CourseRecoveryPlan(
-                planId, studentId, courseId, week, "Not Started", "NA"
-        );
-        recoveryPlans.add(created);
-        return created;
     }
 
     /* ===================== 3. UPDATE METHODS ===================== */
@@ -303,12 +360,9 @@ public class CourseRecoveryService {
      * ✅ 修正：之前你只更新 overall status，现在按 week 更新（符合 courseRecoveryPlan.txt 的 per-week 结构）
      */
     public void updateMilestoneStatus(String planId, String courseId, int week, String newStatus) {
-        for (CourseRecoveryPlan plan : recoveryPlans) {
-            if (planId.equals(plan.getPlanId())
-                    && courseId.equals(plan.getCourseId())
-                    && plan.getStudyWeek() == week) {
-                plan.setStatus(newStatus);
-                break;
+        synchronized (planLock(planId)) {
+            if (applyStatus(planId, courseId, week, newStatus)) {
+                logPlanChange("S," + planId + "," + courseId + "," + week + "," + newStatus);
             }
         }
     }
@@ -325,10 +379,9 @@ public class CourseRecoveryService {
      * ⚠️ 但你现在 txt 结构是 per-week，所以建议 UI 用下面 overload (planId, courseId, week, text)
      */
     public void updateRecommendation(String planId, String newText) {
-        for (CourseRecoveryPlan plan : recoveryPlans) {
-            if (planId.equals(plan.getPlanId())) {
-                plan.setRecommendation(newText);
-                break;
+        synchronized (planLock(planId)) {
+            if (applyPlanRecommendation(planId, newText)) {
+                logPlanChange("P," + planId + "," + newText);
             }
         }
     }
@@ -337,95 +390,150 @@ public class CourseRecoveryService {
      * ✅ 新增：按 week 更新 recommendation（给 Recovery Panel 用）
      */
     public void updateRecommendation(String planId, String courseId, int week, String newText) {
-        for (CourseRecoveryPlan plan : recoveryPlans) {
-            if (planId.equals(plan.getPlanId())
-                    && courseId.equals(plan.getCourseId())
-                    && plan.getStudyWeek() == week) {
-                plan.setRecommendation(newText);
-                break;
+        synchronized (planLock(planId)) {
+            if (applyRecommendation(planId, courseId, week, newText)) {
+                logPlanChange("R," + planId + "," + courseId + "," + week + "," + newText);
             }
         }
     }
 
     public void removeRecommendation(String planId) {
-        for (CourseRecoveryPlan plan : recoveryPlans) {
-            if (planId.equals(plan.getPlanId())) {
-                plan.setRecommendation("NA");
-                break;
+        updateRecommendation(planId, "NA");
+    }
+
+    // apply* 只改内存 + index（load 重放也用），返回 true 表示真的有改动
+    private boolean applyStatus(String planId, String courseId, int week, String newStatus) {
+        CourseRecoveryPlan plan = planWeekIndex.get(planWeekKey(planId, courseId, week));
+        if (plan == null || Objects.equals(plan.getStatus(), newStatus)) return false;
+        plan.setStatus(newStatus);
+        return true;
+    }
+
+    private boolean applyRecommendation(String planId, String courseId, int week, String newText) {
+        CourseRecoveryPlan plan = planWeekIndex.get(planWeekKey(planId, courseId, week));
+        if (plan == null || Objects.equals(plan.getRecommendation(), newText)) return false;
+        plan.setRecommendation(newText);
+        return true;
+    }
+
+    private boolean applyPlanRecommendation(String planId, String newText) {
+        CourseRecoveryPlan plan = firstRowOfPlan(planId);
+        if (plan == null || Objects.equals(plan.getRecommendation(), newText)) return false;
+        plan.setRecommendation(newText);
+        return true;
+    }
+
+    private void applyCreatePlanRow(CourseRecoveryPlan plan) {
+        for (CourseRecoveryPlan row : plansByStudentCourse.getOrDefault(
+                studentCourseKey(plan.getStudentId(), plan.getCourseId()), Collections.emptyList())) {
+            if (row.getPlanId().equals(plan.getPlanId()) && row.getStudyWeek() == plan.getStudyWeek()) {
+                return; // already in the snapshot
             }
         }
+        addPlanRow(plan);
     }
 
-    /* ===================== 4. SAVE BACK TO TXT ===================== */
+    /* ===================== 4. SAVE TO THE DATA STORE ===================== */
 
+    /**
+     * Saves the unsaved plan changes (one small append to courseRecoveryPlan.log, or a few
+     * indexed row updates in the database). Once more than PLAN_LOG_COMPACT_THRESHOLD
+     * changes are saved they are compacted.
+     */
     public void saveRecoveryPlans() {
-        List<String> lines = new ArrayList<>();
-        for (CourseRecoveryPlan plan : recoveryPlans) {
-            String line = plan.getPlanId() + "," +
-                    plan.getStudentId() + "," +
-                    plan.getCourseId() + "," +
-                    plan.getStudyWeek() + "," +
-                    (plan.getStatus() == null ? "" : plan.getStatus()) + "," +
-                    (plan.getRecommendation() == null ? "NA" : plan.getRecommendation());
-            lines.add(line);
-        }
-        writeLines(RECOVERY_PLAN_FILE, lines); // RECOVERY_PLAN_FILE = "data/courseRecoveryPlan.txt"
+        releasePlanIds();
+
+        planTable.withLock(() -> {
+            syncRecoveryPlans();   // other clients' changes go before ours in the log
+            if (!appendPendingPlanChanges()) return; // keep pending, retry on next save
+
+            if (planTable.changeCount() >= PLAN_LOG_COMPACT_THRESHOLD) {
+                compactRecoveryPlans();
+            }
+        });
     }
 
-    public void updateScoreForRecovery(String studentId, String courseId, double newGradePoint) {
-        for (Score s : scores) {
-            if (studentId.equals(s.getstudentId())
-                    && courseId.equals(s.getcourseId())) {
-                s.setgradePoint(newGradePoint);
-                if (newGradePoint >= 2.0) {
-                    s.setstatus("PASS");
-                } else {
-                    s.setstatus("FAIL");
-                }
+    /**
+     * Folds the saved plan changes into the stored rows: courseRecoveryPlan.txt is
+     * rewritten from memory and its log cleared (the database only drops the change entries).
+     */
+    public void compactRecoveryPlans() {
+        planTable.withLock(() -> {
+            syncRecoveryPlans();
+            if (!appendPendingPlanChanges()) return;
+
+            // rows in insertion (file) order
+            List<Map.Entry<CourseRecoveryPlan, Long>> rows = new ArrayList<>(recoveryPlans.entrySet());
+            rows.sort(Map.Entry.comparingByValue());
+
+            List<String[]> lines = new ArrayList<>();
+            for (Map.Entry<CourseRecoveryPlan, Long> row : rows) {
+                CourseRecoveryPlan plan = row.getKey();
+                lines.add(new String[] {
+                        plan.getPlanId(),
+                        plan.getStudentId(),
+                        plan.getCourseId(),
+                        String.valueOf(plan.getStudyWeek()),
+                        plan.getStatus() == null ? "" : plan.getStatus(),
+                        plan.getRecommendation() == null ? "NA" : plan.getRecommendation()});
             }
-        }
-        saveScores();
+            try {
+                planTable.compact(lines);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
 
-        Student stu = students.get(studentId);
-        if (stu != null) {
-            int failed = (int) stu.getScores().stream()
-                    .filter(sc -> "FAIL".equalsIgnoreCase(sc.getstatus()))
-                    .count();
-            stu.setFailedCourseCount(failed);
+    // @return false if the store could not save them (they stay pending)
+    private boolean appendPendingPlanChanges() {
+        List<String> batch;
+        synchronized (pendingPlanLog) {
+            if (pendingPlanLog.isEmpty()) return true;
+            batch = new ArrayList<>(pendingPlanLog);
         }
+        try {
+            planTable.append(splitEntries(batch));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+        synchronized (pendingPlanLog) {
+            pendingPlanLog.subList(0, batch.size()).clear(); // edits made meanwhile stay pending
+        }
+        return true;
     }
 
-    private void saveScores() {
-        // ✅ 1) 去重：同一个 student+course 只保留 attempt 最大的那条
-        Map<String, Score> latestMap = new LinkedHashMap<>();
-        for (Score s : scores) {
-            String key = s.getstudentId() + "|" + s.getcourseId();
-            Score old = latestMap.get(key);
-            if (old == null || s.getattempt() > old.getattempt()) {
-                latestMap.put(key, s);
-            }
-        }
+    private void logCreate(CourseRecoveryPlan p) {
+        logPlanChange("C," + p.getPlanId() + "," + p.getStudentId() + "," + p.getCourseId() + ","
+                + p.getStudyWeek() + "," + p.getStatus() + "," + p.getRecommendation());
+    }
 
-        // ✅ 2) 用去重后的结果覆盖 scores（避免下次越存越多）
-        scores.clear();
-        scores.addAll(latestMap.values());
+    private void logPlanChange(String entry) {
+        synchronized (pendingPlanLog) {
+            pendingPlanLog.add(entry);
+        }
+    }
 
-        // ✅ 3) 写回 txt（现在就只会写 1 行）
-        List<String> lines = new ArrayList<>();
-        for (Score s : scores) {
-            StringBuilder sb = new StringBuilder();
-            sb.append(s.getstudentId()).append(",");
-            sb.append(s.getcourseId()).append(",");
-            sb.append(s.getattempt()).append(",");
-            sb.append(s.getsemester()).append(",");
-            sb.append(s.getassignmentScore()).append(",");
-            sb.append(s.getexamScore()).append(",");
-            sb.append(s.getgradePoint()).append(",");
-            sb.append(s.getgrade()).append(",");
-            sb.append(s.getstatus());
-            lines.add(sb.toString());
+    public void updateScoreForRecovery(String studentId, String courseId, double newGradePoint) {
+        synchronized (repository.studentLock(studentId)) {
+            List<Score> attempts = repository.getScores(studentId, courseId);
+            if (attempts.isEmpty()) return;
+
+            // each change also moves the student's CGPA + failed count (O(1) per row)
+            for (Score attempt : attempts) {
+                repository.updateScore(attempt, s -> {
+                    s.setgradePoint(newGradePoint);
+                    if (newGradePoint >= 2.0) {
+                        s.setstatus("PASS");
+                    } else {
+                        s.setstatus("FAIL");
+                    }
+                });
+            }
+            // stuScore.txt only keeps the latest attempt, so that is the row to persist
+            repository.saveScore(repository.getLatestScore(studentId, courseId));
         }
-        writeLines(SCORE_FILE, lines);
     }
 
 
@@ -433,54 +541,83 @@ public class CourseRecoveryService {
 
     private List<String[]> readCsv(String resourcePath) {
         List<String[]> rows = new ArrayList<>();
-        try (BufferedReader reader = openReader(resourcePath)) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String trimmed = line.trim();
-                if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
-
-                String[] parts = trimmed.split(",", -1);
-                rows.add(parts);
-            }
+        try {
+            DataFileLock.withLock(lockData(resourcePath), () -> {
+                try (BufferedReader reader = openReader(resourcePath)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        String trimmed = line.trim();
+                        if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+
+                        String[] parts = trimmed.split(",", -1);
+                        rows.add(parts);
+                    }
+                }
+            });
         } catch (IOException e) {
             e.printStackTrace();
         }
         return rows;
     }
 
-    private static final String PROJECT_RESOURCE_ROOT = "src/main/resources/";
+    private BufferedReader openReader(String resourcePath) throws IOException {
+        // ✅ 优先读项目里的真实文件（会保留你 save 的内容）
+        File f = resourceFile(resourcePath);
+        if (f.exists()) {
+            return new BufferedReader(new InputStreamReader(new FileInputStream(f), "UTF-8"));
+        }
 
-private BufferedReader openReader(String resourcePath) throws IOException {
-    // ✅ 优先读项目里的真实文件（会保留你 save 的内容）
-    File f = new File(PROJECT_RESOURCE_ROOT + resourcePath);
-    if (f.exists()) {
-        return new BufferedReader(new InputStreamReader(new FileInputStream(f), "UTF-8"));
+        // fallback: 读 jar/classpath（打包后才会用到）
+        InputStream is = getClass().getClassLoader().getResourceAsStream(resourcePath);
+        if (is == null) throw new FileNotFoundException("Resource not found: " + resourcePath);
+        return new BufferedReader(new InputStreamReader(is, "UTF-8"));
     }
 
-    // fallback: 读 jar/classpath（打包后才会用到）
-    InputStream is = getClass().getClassLoader().getResourceAsStream(resourcePath);
-    if (is == null) throw new FileNotFoundException("Resource not found: " + resourcePath);
-    return new BufferedReader(new InputStreamReader(is, "UTF-8"));
-}
+    // writes <file>.tmp and fsyncs it, then renames it over the file (keeping a .bak): a crash never leaves half a file
+    private boolean writeLines(String resourcePath, List<String> lines) {
+        try {
+            DataFileLock.withLock(lockData(resourcePath),
+                    () -> SafeFileWriter.writeAtomically(resourceFile(resourcePath), lines, true));
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
 
-private void writeLines(String resourcePath, List<String> lines) {
-    try {
-        File f = new File(PROJECT_RESOURCE_ROOT + resourcePath);
-        File parent = f.getParentFile();
-        if (parent != null) parent.mkdirs();
+    // pending "S,P001,..." entries split into the fields the store takes
+    private static List<String[]> splitEntries(List<String> entries) {
+        List<String[]> rows = new ArrayList<>(entries.size());
+        for (String entry : entries) {
+            rows.add(entry.split(",", -1));
+        }
+        return rows;
+    }
 
-        try (BufferedWriter writer = new BufferedWriter(
-                new OutputStreamWriter(new FileOutputStream(f, false), "UTF-8")
-        )) {
-            for (String line : lines) {
-                writer.write(line);
-                writer.newLine();
-            }
+    // cross-client lock on a data file (the .seq file); null if it cannot be taken, and the caller carries on unlocked
+    private DataFileLock lockData(String resourcePath) {
+        try {
+            return DataFileLock.lock(resourceFile(resourcePath));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
         }
-    } catch (IOException e) {
-        e.printStackTrace();
     }
-}
+
+    // "data/<file>" -> <file> in the data folder (the path itself is kept for the classpath fallback)
+    private File resourceFile(String resourcePath) {
+        return baseDataReader.dataFile(resourcePath.substring(DATA_FOLDER.length()));
+    }
+
+    // free-text fields are always last, so commas inside them are glued back together
+    private String joinTail(String[] parts, int from) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < parts.length; i++) {
+            if (i > from) sb.append(",");
+            sb.append(parts[i]);
+        }
+        return sb.toString().trim();
+    }
 
     private int parseIntSafe(String value) {
         try {
@@ -490,28 +627,146 @@ private void writeLines(String resourcePath, List<String> lines) {
         }
     }
 
-    private double parseDoubleSafe(String value) {
-        try {
-            return Double.parseDouble(value.trim());
-        } catch (Exception e) {
-            return 0.0;
+    /* =====================  Plan Indexes  ===================== */
+
+    // every insert / delete of a plan row goes through these two methods so the indexes stay in sync
+
+    private void addPlanRow(CourseRecoveryPlan plan) {
+        recoveryPlans.put(plan, planRowSequence.incrementAndGet());
+        plansByPlanId.computeIfAbsent(plan.getPlanId(), k -> new CopyOnWriteArrayList<>()).add(plan);
+        plansByStudentCourse.computeIfAbsent(studentCourseKey(plan.getStudentId(), plan.getCourseId()),
+                k -> new CopyOnWriteArrayList<>()).add(plan);
+        // first row wins, same as the old linear scan
+        planWeekIndex.putIfAbsent(planWeekKey(plan.getPlanId(), plan.getCourseId(), plan.getStudyWeek()), plan);
+        notePlanId(plan.getPlanId());
+    }
+
+    private void removePlanRow(CourseRecoveryPlan plan) {
+        recoveryPlans.remove(plan);
+        removeFromIndex(plansByPlanId, plan.getPlanId(), plan);
+        removeFromIndex(plansByStudentCourse, studentCourseKey(plan.getStudentId(), plan.getCourseId()), plan);
+
+        String weekKey = planWeekKey(plan.getPlanId(), plan.getCourseId(), plan.getStudyWeek());
+        if (planWeekIndex.get(weekKey) == plan) {
+            planWeekIndex.remove(weekKey);
+            // re-point the week key at a remaining duplicate row of the same plan, if any
+            for (CourseRecoveryPlan other : plansByPlanId.getOrDefault(plan.getPlanId(), Collections.emptyList())) {
+                if (plan.getCourseId().equals(other.getCourseId()) && other.getStudyWeek() == plan.getStudyWeek()) {
+                    planWeekIndex.put(weekKey, other);
+                    break;
+                }
+            }
         }
     }
 
+    private void removeFromIndex(Map<String, List<CourseRecoveryPlan>> index, String key, CourseRecoveryPlan plan) {
+        List<CourseRecoveryPlan> rows = index.get(key);
+        if (rows == null) return;
+        rows.remove(plan);
+        if (rows.isEmpty()) index.remove(key);
+    }
+
+    private CourseRecoveryPlan firstRowOfPlan(String planId) {
+        List<CourseRecoveryPlan> rows = plansByPlanId.get(planId);
+        return (rows == null) ? null : firstOf(rows);
+    }
+
+    // iterates a snapshot, so a row removed concurrently cannot cause an IndexOutOfBoundsException
+    private static CourseRecoveryPlan firstOf(List<CourseRecoveryPlan> rows) {
+        for (CourseRecoveryPlan row : rows) {
+            return row;
+        }
+        return null;
+    }
+
+    // plan edits lock the plan's student, so they serialize with that student's other changes
+    private Object planLock(String planId) {
+        CourseRecoveryPlan first = firstRowOfPlan(planId);
+        return repository.studentLock(first != null ? first.getStudentId() : planId);
+    }
+
+    private static String studentCourseKey(String studentId, String courseId) {
+        return studentId + "|" + courseId;
+    }
+
+    private static String planWeekKey(String planId, String courseId, int week) {
+        return planId + "|" + courseId + "|" + week;
+    }
+
+    // O(1) and safe for concurrent callers: every call gets a different number.
+    // Numbers come from a block reserved in the shared .seq file, so two clients never hand out the same ID.
     private String generateNextPlanId() {
-        int max = 0;
-        for (CourseRecoveryPlan plan : recoveryPlans) {
-            String id = plan.getPlanId();
-            if (id == null || id.length() < 2) continue;
-            if (!id.startsWith("P")) continue;
+        PlanIdBlock block = planIdBlock;
+        int n = block.next.getAndIncrement();
+        if (n > block.to) {
+            n = reservePlanIds();
+        }
+        return String.format("P%03d", n);
+    }
 
-            try {
-                int n = Integer.parseInt(id.substring(1));
-                if (n > max) max = n;
-            } catch (NumberFormatException ignored) {}
+    // numbers [next, to] are reserved for this client; next is handed out without locking
+    private static final class PlanIdBlock {
+        final AtomicInteger next;
+        final int to;
+
+        PlanIdBlock(int from, int to) {
+            this.next = new AtomicInteger(from);
+            this.to = to;
+        }
+    }
+
+    // slow path: the block is used up, so take the next PLAN_ID_BLOCK free numbers from the .seq file
+    private synchronized int reservePlanIds() {
+        PlanIdBlock block = planIdBlock;
+        int n = block.next.getAndIncrement();
+        if (n <= block.to) return n;   // another thread reserved a new block meanwhile
+
+        return DataFileLock.withLock(lockData(PLAN_ID_SEQUENCE_FILE), () -> {
+            int from = Math.max(readPlanSequence(), lastPlanNumber.get()) + 1;
+            int to = from + PLAN_ID_BLOCK - 1;
+            writeLines(PLAN_ID_SEQUENCE_FILE, Collections.singletonList(String.valueOf(to)));
+            lastPlanNumber.accumulateAndGet(from, Math::max);
+            planIdBlock = new PlanIdBlock(from + 1, to);
+            return from;
+        });
+    }
+
+    // gives unused reserved numbers back when no other client reserved after us, so IDs stay contiguous
+    private synchronized void releasePlanIds() {
+        PlanIdBlock block = planIdBlock;
+        // closes the block: callers from now on take the slow path and wait for this method
+        int unused = block.next.getAndSet(block.to + 1);
+        if (unused > block.to) return;
+
+        boolean released = DataFileLock.withLock(lockData(PLAN_ID_SEQUENCE_FILE),
+                () -> readPlanSequence() == block.to
+                        && writeLines(PLAN_ID_SEQUENCE_FILE, Collections.singletonList(String.valueOf(unused - 1))));
+        if (released) return;
+        planIdBlock = new PlanIdBlock(unused, block.to); // another client reserved after us: keep them
+    }
+
+    // keeps the sequence ahead of every Pnnn ID that exists (loaded, replayed or passed in)
+    private void notePlanId(String id) {
+        if (id == null || id.length() < 2 || !id.startsWith("P")) return;
+        try {
+            int n = Integer.parseInt(id.substring(1));
+            lastPlanNumber.accumulateAndGet(n, Math::max);
+        } catch (NumberFormatException ignored) {}
+    }
+
+    // the persisted high-water mark also covers plans whose rows were all removed later
+    private void loadPlanSequence() {
+        lastPlanNumber.accumulateAndGet(readPlanSequence(), Math::max);
+    }
+
+    // highest number any client used or reserved, 0 if there is no .seq file yet
+    private int readPlanSequence() {
+        int last = 0;
+        if (!resourceFile(PLAN_ID_SEQUENCE_FILE).exists()) return last;
+        for (String[] parts : readCsv(PLAN_ID_SEQUENCE_FILE)) {
+            last = Math.max(last, parseIntSafe(parts[0]));
         }
-        int next = max + 1;
-        return String.format("P%03d", next);
+        return last;
     }
 
     public List<Course> getAllCourses() {
@@ -521,140 +776,275 @@ private void writeLines(String resourcePath, List<String> lines) {
 }
 
     private void loadCustomMilestones() {
-        customMilestones.clear();
-        customMilestones.addAll(readCsv(CUSTOM_MILESTONE_FILE));
+        customTable.withLock(() -> {
+            customMilestones.clear();
+            List<String[]> changes = new ArrayList<>();
+            for (String[] p : customTable.load(changes)) {
+                // P001,C007,4,task
+                if (p.length < 4) continue;
+                customMilestones.upsert(p[0].trim(), IdDictionary.COURSES.intern(p[1]), parseIntSafe(p[2]), joinTail(p, 3));
+            }
+            replayCustomMilestoneLog(changes);
+        });
     }
 
-    public void saveCustomMilestones() {
-        List<String> lines = new ArrayList<>();
-        for (String[] p : customMilestones) {
-            if (p.length < 4) continue;
-            lines.add(p[0].trim() + "," + p[1].trim() + "," + p[2].trim() + "," + p[3].trim());
+    // 重放 snapshot 之后保存的 custom milestone 改动（recoveryMilestoneCustom.log）
+    private void replayCustomMilestoneLog(List<String[]> changes) {
+        pendingCustomLog.clear();
+        for (String[] parts : changes) {
+            applyLoggedCustomChange(parts);
         }
-        writeLines(CUSTOM_MILESTONE_FILE, lines);
     }
 
-    public void upsertCustomMilestone(String planId, String courseId, int week, String task) {
-        task = (task == null) ? "" : task.replace(",", "，").trim();
-        String w = String.valueOf(week);
-
-        for (int i = 0; i < customMilestones.size(); i++) {
-            String[] p = customMilestones.get(i);
-            if (p.length < 4) continue;
-            if (planId.equals(p[0].trim()) && courseId.equals(p[1].trim()) && w.equals(p[2].trim())) {
-                p[3] = task;
-                return;
-            }
+    // @return false if the line is malformed (e.g. torn last line) and was skipped
+    private boolean applyLoggedCustomChange(String[] parts) {
+        if (parts.length < 4) return false;
+        String planId = parts[1].trim();
+        String courseId = IdDictionary.COURSES.intern(parts[2]);
+        int week = parseIntSafe(parts[3]);
+        switch (parts[0].trim()) {
+            case "U": // U,planId,courseId,week,task
+                if (parts.length < 5) return false;
+                customMilestones.upsert(planId, courseId, week, joinTail(parts, 4));
+                return true;
+            case "D": // D,planId,courseId,week
+                customMilestones.remove(planId, courseId, week);
+                return true;
+            default:
+                return false;
         }
-        customMilestones.add(new String[]{planId, courseId, w, task});
     }
 
-    public void removeCustomMilestone(String planId, String courseId, int week) {
-        String w = String.valueOf(week);
-        customMilestones.removeIf(p ->
-                p.length >= 4 &&
-                planId.equals(p[0].trim()) &&
-                courseId.equals(p[1].trim()) &&
-                w.equals(p[2].trim())
-        );
+    // same as syncRecoveryPlans(), for the custom milestones (caller holds their lock)
+    private void syncCustomMilestones() {
+        List<String[]> rows = new ArrayList<>();
+        if (customTable.sync(rows)) {
+            reloadCustomMilestones();
+            return;
+        }
+        if (rows.isEmpty()) return;
+
+        repository.withAllStudentsLocked(() -> {
+            for (String[] parts : rows) {
+                applyLoggedCustomChange(parts);
+            }
+            reapplyPendingCustomChanges();
+        });
     }
 
-    public List<Milestone> getMilestonesForPlan(String planId, String courseId) {
-        // base template
-        List<Milestone> base = getMilestonesForCourse(courseId);
+    private void reloadCustomMilestones() {
+        repository.withAllStudentsLocked(() -> {
+            List<String> unsaved;
+            synchronized (pendingCustomLog) {
+                unsaved = new ArrayList<>(pendingCustomLog);
+            }
+            loadCustomMilestones();
+            synchronized (pendingCustomLog) {
+                pendingCustomLog.addAll(unsaved);
+            }
+            reapplyPendingCustomChanges();
+        });
+    }
 
-        // overrides/additions
-        Map<Integer, String> override = new HashMap<>();
-        for (String[] p : customMilestones) {
-            if (p.length < 4) continue;
-            if (planId.equals(p[0].trim()) && courseId.equals(p[1].trim())) {
-                int week = parseIntSafe(p[2]);
-                override.put(week, p[3].trim());
+    private void reapplyPendingCustomChanges() {
+        synchronized (pendingCustomLog) {
+            for (String entry : pendingCustomLog) {
+                applyLoggedCustomChange(entry.split(",", -1));
             }
         }
+    }
 
-        Map<Integer, Milestone> merged = new HashMap<>();
-        for (Milestone m : base) {
-            int w = m.getStudyWeek();
-            String task = override.containsKey(w) ? override.get(w) : m.getTask();
-            merged.put(w, new Milestone("TEMPLATE", courseId, w, task));
-        }
+    /**
+     * Saves the unsaved custom milestone edits (recoveryMilestoneCustom.log or database rows).
+     * Once more than CUSTOM_LOG_COMPACT_THRESHOLD changes are saved they are compacted.
+     */
+    public void saveCustomMilestones() {
+        customTable.withLock(() -> {
+            syncCustomMilestones();
+            if (!appendPendingCustomChanges()) return; // keep pending, retry on next save
 
-        // add new weeks (custom only)
-        for (Map.Entry<Integer, String> e : override.entrySet()) {
-            if (!merged.containsKey(e.getKey())) {
-                merged.put(e.getKey(), new Milestone("CUSTOM", courseId, e.getKey(), e.getValue()));
+            if (customTable.changeCount() >= CUSTOM_LOG_COMPACT_THRESHOLD) {
+                compactCustomMilestones();
             }
-        }
+        });
+    }
 
-        List<Milestone> result = new ArrayList<>(merged.values());
-        result.sort(Comparator.comparingInt(Milestone::getStudyWeek));
-        return result;
+    /**
+     * Folds the saved custom milestone changes into the stored rows
+     * (rewrites recoveryMilestoneCustom.txt and clears its log).
+     */
+    public void compactCustomMilestones() {
+        customTable.withLock(() -> {
+            syncCustomMilestones();
+            if (!appendPendingCustomChanges()) return;
+
+            List<String[]> lines = new ArrayList<>();
+            for (Milestone m : customMilestones.all()) {
+                lines.add(new String[] {m.getcourseRecoveryPlanId(), m.getCourseId(),
+                        String.valueOf(m.getStudyWeek()), m.getTask()});
+            }
+            try {
+                customTable.compact(lines);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
     }
 
-    // 删除某个 plan week entry（courseRecoveryPlan.txt 那行）
-    public void removePlanWeek(String planId, String studentId, String courseId, int week) {
-        recoveryPlans.removeIf(p ->
-                planId.equals(p.getPlanId()) &&
-                studentId.equals(p.getStudentId()) &&
-                courseId.equals(p.getCourseId()) &&
-                p.getStudyWeek() == week
-        );
+    private boolean appendPendingCustomChanges() {
+        List<String> batch;
+        synchronized (pendingCustomLog) {
+            if (pendingCustomLog.isEmpty()) return true;
+            batch = new ArrayList<>(pendingCustomLog);
+        }
+        try {
+            customTable.append(splitEntries(batch));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+        synchronized (pendingCustomLog) {
+            pendingCustomLog.subList(0, batch.size()).clear();
+        }
+        return true;
     }
 
-        private File dataFile(String fileName) {
-        File dir = new File("data");   
-        if (!dir.exists()) dir.mkdirs();
-        return new File(dir, fileName);
+    /**
+     * Picks up what other clients saved to the shared data folder (scores, plans and custom
+     * milestones). Only their new changes are read and merged; a data set is reloaded
+     * only after another client compacted it. Unsaved edits are kept.
+     */
+    public void reloadChangedFiles() {
+        repository.reloadChangedFiles();
+        planTable.withLock(this::syncRecoveryPlans);
+        customTable.withLock(this::syncCustomMilestones);
     }
 
-    public void recordRecoveryExamResult(String studentId, String courseId, double newGradePoint) {
-        Score latest = null;
-        for (Score s : scores) {
-            if (studentId.equals(s.getstudentId()) && courseId.equals(s.getcourseId())) {
-                if (latest == null || s.getattempt() > latest.getattempt()) latest = s;
+    public void upsertCustomMilestone(String planId, String courseId, int week, String task) {
+        task = (task == null) ? "" : task.replace(",", "，").trim();
+        courseId = IdDictionary.COURSES.intern(courseId);
+
+        synchronized (planLock(planId)) {
+            if (customMilestones.upsert(planId, courseId, week, task)) {
+                logCustomChange("U," + planId + "," + courseId + "," + week + "," + task);
             }
         }
+    }
 
-        int nextAttempt = (latest == null) ? 1 : (latest.getattempt() + 1);
+    public void removeCustomMilestone(String planId, String courseId, int week) {
+        synchronized (planLock(planId)) {
+            if (customMilestones.remove(planId, courseId, week)) {
+                logCustomChange("D," + planId + "," + courseId + "," + week);
+            }
+        }
+    }
 
-        String passFail = (newGradePoint >= 2.0) ? "PASS" : "FAIL";
-        String grade = (newGradePoint >= 4.0) ? "A+"
-                : (newGradePoint >= 3.7) ? "A"
-                : (newGradePoint >= 3.3) ? "B+"
-                : (newGradePoint >= 3.0) ? "B"
-                : (newGradePoint >= 2.7) ? "C+"
-                : (newGradePoint >= 2.3) ? "C"
-                : (newGradePoint >= 2.0) ? "D"
-                : "F";
+    private void logCustomChange(String entry) {
+        synchronized (pendingCustomLog) {
+            pendingCustomLog.add(entry);
+        }
+    }
 
-        if (latest == null) {
-            // 如果真的找不到原本记录，才新增（很少发生）
-            int semester = 1;
-            Score created = new Score(studentId, courseId, nextAttempt, semester, 0, 0, grade, newGradePoint, passFail);
-            scores.add(created);
+    /**
+     * Template milestones of the course with this plan's overrides applied, in week order.
+     * Both inputs are already indexed and sorted, so this is one merge pass over the plan's weeks.
+     */
+    public List<Milestone> getMilestonesForPlan(String planId, String courseId) {
+        // base template (sorted by week)
+        List<Milestone> base = milestonesByCourse.getOrDefault(courseId, Collections.emptyList());
+
+        // overrides/additions (sorted by week)
+        Collection<Milestone> override = customMilestones.forPlanCourse(planId, courseId);
+        Iterator<Milestone> custom = override.iterator();
+        Milestone nextCustom = custom.hasNext() ? custom.next() : null;
+
+        List<Milestone> result = new ArrayList<>(base.size() + override.size());
+        int i = 0;
+        while (i < base.size() || nextCustom != null) {
+            int templateWeek = (i < base.size()) ? base.get(i).getStudyWeek() : Integer.MAX_VALUE;
+
+            if (nextCustom != null && nextCustom.getStudyWeek() < templateWeek) {
+                // new week (custom only)
+                result.add(new Milestone("CUSTOM", courseId, nextCustom.getStudyWeek(), nextCustom.getTask()));
+                nextCustom = custom.hasNext() ? custom.next() : null;
+                continue;
+            }
 
-            Student stu = students.get(studentId);
-            if (stu != null) stu.addScore(created);
+            // template week; the last template row of a week wins, as before
+            while (i + 1 < base.size() && base.get(i + 1).getStudyWeek() == templateWeek) i++;
+            String task = base.get(i).getTask();
+            if (nextCustom != null && nextCustom.getStudyWeek() == templateWeek) {
+                task = nextCustom.getTask();
+                nextCustom = custom.hasNext() ? custom.next() : null;
+            }
+            result.add(new Milestone("TEMPLATE", courseId, templateWeek, task));
+            i++;
+        }
+        return result;
+    }
 
-        } else {
-            // ✅ 重点：直接改原本那条，不要新增
-            latest.setattempt(nextAttempt);
-            latest.setgradePoint(newGradePoint);
-            latest.setgrade(grade);
-            latest.setstatus(passFail);
-            // 如果你有 recovery exam score，也可以 setexamScore(...)
+    // 删除某个 plan week entry（courseRecoveryPlan.txt 那行）
+    public void removePlanWeek(String planId, String studentId, String courseId, int week) {
+        synchronized (repository.studentLock(studentId)) {
+            if (applyRemovePlanWeek(planId, studentId, courseId, week)) {
+                logPlanChange("D," + planId + "," + studentId + "," + courseId + "," + week);
+            }
         }
+    }
 
-        // 更新 failed count + 写回 txt
-        Student stu = students.get(studentId);
-        if (stu != null) {
-            int failed = (int) stu.getScores().stream()
-                    .filter(sc -> "FAIL".equalsIgnoreCase(sc.getstatus()))
-                    .count();
-            stu.setFailedCourseCount(failed);
+    private boolean applyRemovePlanWeek(String planId, String studentId, String courseId, int week) {
+        List<CourseRecoveryPlan> rows = plansByStudentCourse.get(studentCourseKey(studentId, courseId));
+        if (rows == null) return false;
+
+        List<CourseRecoveryPlan> toRemove = new ArrayList<>();
+        for (CourseRecoveryPlan p : rows) {
+            if (planId.equals(p.getPlanId()) && p.getStudyWeek() == week) {
+                toRemove.add(p);
+            }
+        }
+        for (CourseRecoveryPlan p : toRemove) {
+            removePlanRow(p);
         }
+        return !toRemove.isEmpty();
+    }
 
-        saveScores();
+    public void recordRecoveryExamResult(String studentId, String courseId, double newGradePoint) {
+        synchronized (repository.studentLock(studentId)) {
+            Score latest = repository.getLatestScore(studentId, courseId);
+
+            int nextAttempt = (latest == null) ? 1 : (latest.getattempt() + 1);
+
+            String passFail = (newGradePoint >= 2.0) ? "PASS" : "FAIL";
+            String grade = (newGradePoint >= 4.0) ? "A+"
+                    : (newGradePoint >= 3.7) ? "A"
+                    : (newGradePoint >= 3.3) ? "B+"
+                    : (newGradePoint >= 3.0) ? "B"
+                    : (newGradePoint >= 2.7) ? "C+"
+                    : (newGradePoint >= 2.3) ? "C"
+                    : (newGradePoint >= 2.0) ? "D"
+                    : "F";
+
+            // addScore / updateScore 会顺便增量更新 CGPA + failed count（shared Student，eligibility view 立即可见）
+            if (latest == null) {
+                // 如果真的找不到原本记录，才新增（很少发生）
+                int semester = 1;
+                Score created = new Score(studentId, courseId, nextAttempt, semester, 0, 0, grade, newGradePoint, passFail);
+                repository.addScore(created);
+                latest = created;
+
+            } else {
+                // ✅ 重点：直接改原本那条，不要新增
+                repository.updateScore(latest, s -> {
+                    s.setattempt(nextAttempt);
+                    s.setgradePoint(newGradePoint);
+                    s.setgrade(grade);
+                    s.setstatus(passFail);
+                    // 如果你有 recovery exam score，也可以 setexamScore(...)
+                });
+            }
+
+            // 只 append 这一行到 stuScore.log，不再整份重写 stuScore.txt
+            repository.saveScore(latest);
+        }
     }
 }
@@ -0,0 +1,100 @@
+package edu.apu.crs.service;
+
+import edu.apu.crs.models.Milestone;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Plan-specific milestone overrides (recoveryMilestoneCustom.txt), keyed by (planId, courseId, week).
+// Upsert and remove are O(1) hash operations (plus an O(log weeks) skip-list step);
+// the rows of one plan + course can be read in week order without scanning the others.
+// The Milestone's courseRecoveryPlanId holds the planId.
+//
+// Thread-safe: writers lock byKey; forPlanCourse() reads concurrent maps without locking.
+// Stored Milestones are never modified (an upsert stores a new one), so readers never see a half-written row.
+
+public class CustomMilestoneStore {
+
+    // insertion order = order written to the snapshot file
+    private final Map<String, Milestone> byKey = new LinkedHashMap<>();
+    private final Map<String, NavigableMap<Integer, Milestone>> byPlanCourse = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the override, or replaces the task of an existing one.
+     * @return false if the same task was already stored (nothing changed).
+     */
+    public boolean upsert(String planId, String courseId, int week, String task) {
+        synchronized (byKey) {
+            String key = key(planId, courseId, week);
+            Milestone existing = byKey.get(key);
+            if (existing != null && existing.getTask().equals(task)) return false;
+
+            // put() on an existing key keeps its insertion position
+            Milestone m = new Milestone(planId, courseId, week, task);
+            byKey.put(key, m);
+            byPlanCourse.computeIfAbsent(planCourseKey(planId, courseId), k -> new ConcurrentSkipListMap<>()).put(week, m);
+            return true;
+        }
+    }
+
+    /**
+     * @return false if there was no override for that week.
+     */
+    public boolean remove(String planId, String courseId, int week) {
+        synchronized (byKey) {
+            if (byKey.remove(key(planId, courseId, week)) == null) return false;
+
+            String pc = planCourseKey(planId, courseId);
+            NavigableMap<Integer, Milestone> weeks = byPlanCourse.get(pc);
+            if (weeks != null) {
+                weeks.remove(week);
+                if (weeks.isEmpty()) byPlanCourse.remove(pc);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Overrides of one plan + course in week order (read-only view).
+     */
+    public Collection<Milestone> forPlanCourse(String planId, String courseId) {
+        NavigableMap<Integer, Milestone> weeks = byPlanCourse.get(planCourseKey(planId, courseId));
+        return (weeks == null) ? Collections.emptyList() : Collections.unmodifiableCollection(weeks.values());
+    }
+
+    /**
+     * Every override in insertion order (a copy), for writing the snapshot.
+     */
+    public Collection<Milestone> all() {
+        synchronized (byKey) {
+            return new ArrayList<>(byKey.values());
+        }
+    }
+
+    public int size() {
+        synchronized (byKey) {
+            return byKey.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (byKey) {
+            byKey.clear();
+            byPlanCourse.clear();
+        }
+    }
+
+    private static String key(String planId, String courseId, int week) {
+        return planId + "|" + courseId + "|" + week;
+    }
+
+    private static String planCourseKey(String planId, String courseId) {
+        return planId + "|" + courseId;
+    }
+
+}
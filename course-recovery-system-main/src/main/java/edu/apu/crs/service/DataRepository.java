@@ -0,0 +1,609 @@
+package edu.apu.crs.service;
+
+import edu.apu.crs.dataIO.ChangeTable;
+import edu.apu.crs.dataIO.DataStore;
+import edu.apu.crs.dataIO.ScoreHistoryStore;
+import edu.apu.crs.models.Course;
+import edu.apu.crs.models.Program;
+import edu.apu.crs.models.Score;
+import edu.apu.crs.models.Student;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+// Single in-memory copy of the master data (courses, programs, students, scores).
+// Every service queries this repository instead of re-reading the data store,
+// so a change made by one service is seen by all the others. The data is read and
+// saved through a DataStore (txt files or embedded database, see DataStore.open()).
+//
+// Threading: changes to one student's data are made while holding studentLock(studentId).
+// Score lookups (getScores / getLatestScore) read concurrent collections and never block.
+//
+// Several clients may share one data folder: the scores are only read and saved
+// under the store's lock, and rows other clients saved are merged by reloadChangedFiles().
+//
+// The shared copy is loaded on a background thread (loadSharedAsync) so the UI can show
+// before the files are read; getShared() waits for that load instead of starting another.
+
+public class DataRepository {
+
+    private static CompletableFuture<DataRepository> shared;
+
+    // one daemon thread for background loading, so it never keeps the JVM alive
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "crs-data-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // progress of the shared load; late listeners get the last step replayed
+    private static final List<LoadProgress> loadListeners = new CopyOnWriteArrayList<>();
+    private static volatile int loadPercent = 0;
+    private static volatile String loadStep = "Waiting to load data...";
+
+    private final DataStore store;
+    private final ChangeTable<Score> scoreTable;
+
+    private final Map<String, Course> courses = new HashMap<>();
+    private final Map<String, Program> programs = new HashMap<>();
+    private final Map<String, Student> students = new ConcurrentHashMap<>();
+    // same students keyed by upper-case ID for case-insensitive search
+    private final Map<String, Student> studentsByUpperId = new ConcurrentHashMap<>();
+    private final List<Student> studentList;
+    private final List<Score> scores;
+    // all attempts of one student + course, in load order (copy-on-write lists: readers never lock)
+    private final Map<String, List<Score>> scoresByStudentCourse = new ConcurrentHashMap<>();
+    private final EligibilityService eligibilityService;
+    // every attempt ever saved (stuScore.txt only keeps the latest one)
+    private final ScoreHistoryStore scoreHistory = new ScoreHistoryStore();
+
+    // saved score changes are folded back into the score rows after this many
+    private static final int SCORE_LOG_COMPACT_THRESHOLD = 1000;
+
+    // rows other clients saved that are not applied here yet, latest per student + course
+    private final Map<String, Score> externalScoreChanges = new LinkedHashMap<>();
+
+    // striped per-student locks shared by all services (power of two)
+    private static final int LOCK_STRIPES = 64;
+    private final Object[] studentLocks = new Object[LOCK_STRIPES];
+
+    // told about every student whose scores changed (e.g. to repaint one table row)
+    private final List<Consumer<Student>> studentListeners = new CopyOnWriteArrayList<>();
+
+    // ID / name / email search, built on first use and dropped when the student list changes
+    private volatile StudentSearchIndex searchIndex;
+
+    /**
+     * Returns the repository shared by the whole application, loading it on first use.
+     * If a background load is running, waits for it.
+     * @return The shared repository.
+     */
+    public static DataRepository getShared() {
+        return loadSharedAsync().join();
+    }
+
+    /**
+     * Starts loading the shared repository on the loader thread (only the first call loads).
+     * Progress goes to the listeners added with addLoadListener.
+     * @return Completes with the shared repository.
+     */
+    public static synchronized CompletableFuture<DataRepository> loadSharedAsync() {
+        if (shared == null) {
+            shared = CompletableFuture.supplyAsync(() -> {
+                DataRepository repo = new DataRepository(DataRepository::publishProgress);
+                // the app ends with EXIT_ON_CLOSE / System.exit, so close the store (H2 connection) on the way out
+                Runtime.getRuntime().addShutdownHook(new Thread(repo::close, "crs-data-close"));
+                return repo;
+            }, LOADER);
+        }
+        return shared;
+    }
+
+    /**
+     * Adds a listener for the shared load and tells it the current step straight away.
+     */
+    public static void addLoadListener(LoadProgress listener) {
+        loadListeners.add(listener);
+        listener.onProgress(loadPercent, loadStep);
+    }
+
+    public static void removeLoadListener(LoadProgress listener) {
+        loadListeners.remove(listener);
+    }
+
+    private static void publishProgress(int percent, String step) {
+        loadPercent = percent;
+        loadStep = step;
+        for (LoadProgress listener : loadListeners) {
+            listener.onProgress(percent, step);
+        }
+    }
+
+    public DataRepository() {
+        this(LoadProgress.NONE);
+    }
+
+    public DataRepository(LoadProgress progress) {
+        this(DataStore.open(), progress);
+    }
+
+    /**
+     * Loads all master data from the store.
+     * @param store Where the data is read from and saved to.
+     * @param progress Told before each loading step.
+     */
+    public DataRepository(DataStore store, LoadProgress progress) {
+        System.out.println("Loading shared data repository...");
+        this.store = store;
+        this.scoreTable = store.scores();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            studentLocks[i] = new Object();
+        }
+
+        // 1. Load static data
+        progress.onProgress(0, "Loading courses and programs...");
+        List<Course> allCourses = store.readCourses();
+        for (Course course : allCourses) {
+            courses.put(course.getCourseId(), course);
+        }
+        for (Program program : store.readPrograms()) {
+            programs.put(program.getProgramId(), program);
+        }
+        this.eligibilityService = new EligibilityService(allCourses);
+
+        // 2. Load students and attach their scores (Aggregation)
+        progress.onProgress(10, "Loading students...");
+        this.studentList = store.readStudents();
+        for (Student student : studentList) {
+            indexStudent(student);
+        }
+
+        Map<Student, List<Score>> scoresByStudent = new HashMap<>();
+        ArrayList<Score> scoreList = new ArrayList<>();
+        this.scores = scoreList;
+        // snapshot, log and history are read together so no other client can compact in between
+        scoreTable.withLock(() -> {
+            progress.onProgress(20, "Loading scores...");
+            List<Score> changes = new ArrayList<>();
+            List<Score> loadedScores = scoreTable.load(changes);
+            scoreList.ensureCapacity(loadedScores.size());
+            for (Score score : loadedScores) {
+                indexScore(score, scoresByStudent);
+            }
+
+            // re-apply score changes saved since the last compaction
+            for (Score change : changes) {
+                if (!applyScoreChange(change)) {
+                    indexScore(change, scoresByStudent);
+                }
+            }
+
+            progress.onProgress(60, "Loading score history...");
+            loadScoreHistory();
+        });
+
+        // attach in one step per student (Student keeps a copy-on-write list)
+        for (Map.Entry<Student, List<Score>> e : scoresByStudent.entrySet()) {
+            e.getKey().addScores(e.getValue()); // Aggregation: Student HAS-A List of Scores
+        }
+
+        // 3. Calculate CGPA and failed courses once for everyone
+        // (replayed log changes bypass the running totals, so rebuild them here)
+        progress.onProgress(75, "Calculating eligibility...");
+        eligibilityService.processAllStudentEligibility(studentList);
+
+        // master data and scores parsed this time are kept for the next start
+        store.checkpoint();
+
+        System.out.println("Loaded " + studentList.size() + " students and " + scores.size() + " scores.");
+        progress.onProgress(85, "Loaded " + studentList.size() + " students.");
+    }
+
+    /**
+     * Closes the data store (the H2 connection; nothing for the txt files).
+     * The shared repository is closed by a shutdown hook.
+     */
+    public void close() {
+        try {
+            store.close();
+        } catch (IOException e) {
+            System.err.println("Error closing data store: " + e.getMessage());
+        }
+    }
+
+    // Getters (live collections, shared by all services)
+    public DataStore getStore() {
+        return store;
+    }
+
+    public Map<String, Course> getCourses() {
+        return courses;
+    }
+
+    public Map<String, Program> getPrograms() {
+        return programs;
+    }
+
+    public Map<String, Student> getStudents() {
+        return students;
+    }
+
+    public List<Student> getAllStudents() {
+        return studentList;
+    }
+
+    public List<Score> getScores() {
+        return scores;
+    }
+
+    public EligibilityService getEligibilityService() {
+        return eligibilityService;
+    }
+
+    public Student getStudent(String studentId) {
+        return students.get(studentId);
+    }
+
+    /**
+     * Returns the lock guarding one student's scores, plans and milestones.
+     * Different students usually map to different locks, so officers working on
+     * different students do not wait for each other.
+     */
+    public Object studentLock(String studentId) {
+        int h = (studentId == null) ? 0 : studentId.hashCode();
+        return studentLocks[(h ^ (h >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * Runs the action while holding every student lock (always taken in the same order).
+     * Used to swap in data another client saved. Must not be called while holding a student lock.
+     */
+    public void withAllStudentsLocked(Runnable action) {
+        lockStripes(0, action);
+    }
+
+    private void lockStripes(int stripe, Runnable action) {
+        if (stripe == LOCK_STRIPES) {
+            action.run();
+            return;
+        }
+        synchronized (studentLocks[stripe]) {
+            lockStripes(stripe + 1, action);
+        }
+    }
+
+    /**
+     * Finds a student by ID ignoring case, using the hash index (no list scan).
+     * @param studentId ID typed by the user, e.g. "s001".
+     * @return The student, or null if not found.
+     */
+    public Student findStudentIgnoreCase(String studentId) {
+        if (studentId == null) return null;
+        return studentsByUpperId.get(upperKey(studentId));
+    }
+
+    // student changes hold the studentList lock, like getSearchIndex(), so an index is
+    // never built from a list that is changing, nor kept after a change cleared it
+    public void addStudent(Student student) {
+        synchronized (studentList) {
+            studentList.add(student);
+            indexStudent(student);
+            searchIndex = null;
+        }
+    }
+
+    public boolean removeStudent(String studentId) {
+        synchronized (studentList) {
+            Student student = findStudentIgnoreCase(studentId);
+            if (student == null) return false;
+
+            studentList.remove(student);
+            eligibilityService.studentRemoved(student);
+            students.remove(student.getStudentId());
+            studentsByUpperId.remove(upperKey(student.getStudentId()));
+            searchIndex = null;
+            return true;
+        }
+    }
+
+    /**
+     * Changes a student's ID and moves them to the new key in both indexes.
+     */
+    public void changeStudentId(Student student, String newStudentId) {
+        synchronized (studentList) {
+            String oldStudentId = student.getStudentId();
+            students.remove(oldStudentId);
+            studentsByUpperId.remove(upperKey(oldStudentId));
+            student.setStudentId(newStudentId);
+            indexStudent(student);
+            eligibilityService.studentIdChanged(oldStudentId, student);
+            searchIndex = null;
+        }
+    }
+
+    /**
+     * Returns the prefix / substring / typo search index over all students,
+     * building it if the student list changed since the last search.
+     */
+    public StudentSearchIndex getSearchIndex() {
+        StudentSearchIndex index = searchIndex;
+        if (index == null) {
+            synchronized (studentList) {
+                index = searchIndex;
+                if (index == null) {
+                    index = new StudentSearchIndex(studentList);
+                    searchIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    // first student with an ID wins, matching the old findFirst() behaviour
+    private void indexStudent(Student student) {
+        students.putIfAbsent(student.getStudentId(), student);
+        studentsByUpperId.putIfAbsent(upperKey(student.getStudentId()), student);
+    }
+
+    private static String upperKey(String id) {
+        return id.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Registers a listener called after a student's scores, CGPA or verdict changed.
+     * It runs on the changing thread while that student's lock is held, so keep it short.
+     */
+    public void addStudentListener(Consumer<Student> listener) {
+        studentListeners.add(listener);
+    }
+
+    public void removeStudentListener(Consumer<Student> listener) {
+        studentListeners.remove(listener);
+    }
+
+    private void fireStudentChanged(Student student) {
+        for (Consumer<Student> listener : studentListeners) {
+            listener.accept(student);
+        }
+    }
+
+    /* ===================== Scores ===================== */
+
+    /**
+     * Every recorded attempt of one student for one course, oldest first, including the
+     * ones stuScore.txt no longer has (e.g. a failed attempt before a recovery exam).
+     * Picks up attempts other clients recorded since.
+     */
+    public synchronized List<Score> getAttemptHistory(String studentId, String courseId) {
+        try {
+            scoreTable.withLock(scoreHistory::load);
+        } catch (IOException e) {
+            System.err.println("Error loading score history: " + e.getMessage());
+        }
+        return scoreHistory.attemptsOf(studentId, courseId);
+    }
+
+    // first run: seed the history with every score row we have
+    private void loadScoreHistory() {
+        try {
+            if (scoreHistory.exists()) {
+                scoreHistory.load();
+            } else {
+                scoreHistory.append(scores);
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading score history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns every attempt of one student for one course (O(attempts), no table scan).
+     */
+    public List<Score> getScores(String studentId, String courseId) {
+        List<Score> rows = scoresByStudentCourse.get(scoreKey(studentId, courseId));
+        return rows == null ? Collections.emptyList() : rows;
+    }
+
+    /**
+     * Returns the attempt with the highest attempt number, or null if the student never took the course.
+     */
+    public Score getLatestScore(String studentId, String courseId) {
+        Score latest = null;
+        for (Score s : getScores(studentId, courseId)) {
+            if (latest == null || s.getattempt() > latest.getattempt()) latest = s;
+        }
+        return latest;
+    }
+
+    /**
+     * Adds a new score row to the table, the student-course index and the owning student.
+     * Callers hold studentLock(score.getstudentId()).
+     */
+    public void addScore(Score score) {
+        synchronized (scores) {
+            scores.add(score);
+        }
+        scoresByStudentCourse.computeIfAbsent(scoreKey(score.getstudentId(), score.getcourseId()),
+                k -> new CopyOnWriteArrayList<>()).add(score);
+
+        Student student = students.get(score.getstudentId());
+        if (student != null) {
+            student.addScore(score); // Aggregation: Student HAS-A List of Scores
+            eligibilityService.scoreAdded(student, score);
+            fireStudentChanged(student);
+        }
+    }
+
+    // load time: index the row and group it by student for one bulk attach
+    private void indexScore(Score score, Map<Student, List<Score>> scoresByStudent) {
+        scores.add(score);
+        scoresByStudentCourse.computeIfAbsent(scoreKey(score.getstudentId(), score.getcourseId()),
+                k -> new CopyOnWriteArrayList<>()).add(score);
+
+        Student student = students.get(score.getstudentId());
+        if (student != null) {
+            scoresByStudent.computeIfAbsent(student, k -> new ArrayList<>()).add(score);
+        }
+    }
+
+    /**
+     * Changes an existing score row and updates its student's CGPA, fail count and verdict in O(1).
+     * @param score The row to change (must already be in the repository).
+     * @param change Modification applied to the row.
+     */
+    public void updateScore(Score score, Consumer<Score> change) {
+        Student student = students.get(score.getstudentId());
+        if (student == null) {
+            change.accept(score);
+            return;
+        }
+        eligibilityService.updateScore(student, score, change);
+        fireStudentChanged(student);
+    }
+
+    /**
+     * Persists one changed score row as a single change (stuScore.log, or one row in the database).
+     * The txt score file is only rewritten when the changes are compacted.
+     */
+    public synchronized void saveScore(Score score) {
+        scoreTable.withLock(() -> {
+            readExternalScoreChanges();
+            // our row goes after theirs in the log, so it wins over an unapplied one for the same course
+            externalScoreChanges.remove(scoreKey(score.getstudentId(), score.getcourseId()));
+            try {
+                scoreTable.append(Collections.singletonList(score));
+            } catch (IOException e) {
+                System.err.println("Error saving score change: " + e.getMessage());
+                return;
+            }
+            try {
+                scoreHistory.append(Collections.singletonList(score));
+            } catch (IOException e) {
+                System.err.println("Error recording score history: " + e.getMessage());
+            }
+            if (scoreTable.changeCount() >= SCORE_LOG_COMPACT_THRESHOLD) {
+                compactScores();
+            }
+        });
+    }
+
+    /**
+     * Rewrites stuScore.txt with the latest attempt of every student + course and clears stuScore.log
+     * (the database only drops the change entries every client has read).
+     */
+    public synchronized void compactScores() {
+        scoreTable.withLock(() -> {
+            readExternalScoreChanges();
+
+            Map<String, Score> latestByKey = new LinkedHashMap<>();
+            synchronized (scores) {
+                for (Score s : scores) {
+                    String key = scoreKey(s.getstudentId(), s.getcourseId());
+                    if (!latestByKey.containsKey(key)) {
+                        latestByKey.put(key, getLatestScore(s.getstudentId(), s.getcourseId()));
+                    }
+                }
+            }
+            // rows other clients saved are not applied here yet, but must not be lost from the file
+            latestByKey.putAll(externalScoreChanges);
+            try {
+                scoreTable.compact(latestByKey.values());
+            } catch (IOException e) {
+                System.err.println("Error compacting score file: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Merges score rows other clients saved to the shared data since this client
+     * last looked. Only their new changes are read; after another client compacted
+     * different rows, those rows are merged one by one (no full reload).
+     * Must not be called while holding a student lock.
+     */
+    public void reloadChangedFiles() {
+        List<String> keys;
+        synchronized (this) {
+            scoreTable.withLock(this::readExternalScoreChanges);
+            keys = new ArrayList<>(externalScoreChanges.keySet());
+        }
+        for (String key : keys) {
+            String studentId = key.substring(0, key.indexOf('|'));
+            synchronized (studentLock(studentId)) {
+                Score change;
+                synchronized (this) {
+                    change = externalScoreChanges.remove(key); // null if a local save superseded it
+                }
+                if (change != null) mergeScoreChange(change);
+            }
+        }
+    }
+
+    // queues what other clients wrote since our last read (caller holds the score lock and this)
+    private void readExternalScoreChanges() {
+        List<Score> rows = new ArrayList<>();
+        if (scoreTable.sync(rows)) {
+            // another client compacted to rows we may lack: merge them, then the changes saved after
+            for (Score s : scoreTable.load(rows)) queueExternalScore(s);
+        }
+        for (Score s : rows) queueExternalScore(s);
+    }
+
+    private void queueExternalScore(Score s) {
+        String key = scoreKey(s.getstudentId(), s.getcourseId());
+        externalScoreChanges.remove(key); // keep file order of the latest row
+        externalScoreChanges.put(key, s);
+    }
+
+    // applies a row saved by another client with O(1) CGPA / verdict updates (caller holds the student lock)
+    private void mergeScoreChange(Score change) {
+        Score latest = getLatestScore(change.getstudentId(), change.getcourseId());
+        if (latest == null) {
+            addScore(change);
+        } else if (!sameResult(latest, change)) {
+            updateScore(latest, s -> s.copyResultFrom(change));
+        }
+    }
+
+    private static boolean sameResult(Score a, Score b) {
+        return a.getattempt() == b.getattempt() && a.getsemester() == b.getsemester()
+                && a.getassignmentScore() == b.getassignmentScore() && a.getexamScore() == b.getexamScore()
+                && a.getgradePoint() == b.getgradePoint() && Objects.equals(a.getgrade(), b.getgrade())
+                && a.getstatus().equals(b.getstatus());
+    }
+
+    // a logged row replaces the latest attempt of its student + course; false if there is none (caller adds it)
+    private boolean applyScoreChange(Score change) {
+        Score latest = getLatestScore(change.getstudentId(), change.getcourseId());
+        if (latest == null) return false;
+        latest.copyResultFrom(change);
+        return true;
+    }
+
+    private static String scoreKey(String studentId, String courseId) {
+        return studentId + "|" + courseId;
+    }
+
+    /**
+     * Recalculates CGPA and failed course count for one student after their scores changed.
+     * @param student The student whose scores were modified.
+     */
+    public void refreshEligibility(Student student) {
+        if (student != null) {
+            eligibilityService.processStudentEligibility(student);
+            fireStudentChanged(student);
+        }
+    }
+
+}
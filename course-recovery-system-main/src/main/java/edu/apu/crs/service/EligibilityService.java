@@ -3,16 +3,32 @@ package edu.apu.crs.service;
 import edu.apu.crs.models.Score;
 import edu.apu.crs.models.Course;
 import edu.apu.crs.models.Student;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class EligibilityService {
 
     
     // using courseID to get the course credit hours for calculate cgpa
+    // (read-only after construction, so worker threads can share it)
     private final Map<String, Integer> courseCredits;
 
+    // below this many students the fork-join overhead is not worth it
+    // (EligibilityBenchmark: at 1000 students fork-join is still slower than the serial loop,
+    // from 2000 on it is even or ahead)
+    private static final int PARALLEL_THRESHOLD = 2000;
+    private static final int MIN_BATCH_SIZE = 500;
+
+    // students who need recovery (not eligible or any failed course), sorted by ID.
+    // Kept up to date wherever a verdict is cached, so readers never scan all students.
+    private final ConcurrentSkipListMap<String, Student> needingRecovery = new ConcurrentSkipListMap<>();
+
     
     public EligibilityService(List<Course> allCourses) {
         
@@ -31,7 +47,8 @@ public class EligibilityService {
      * @return Calculated CGPA.
      */
     public double calculateCGPA(List<Score> scores) {
-        double totalGradePointsXCredits = 0.0;
+        // grade points in hundredths, the same exact sums Student keeps as running totals
+        long totalGradePointsXCredits = 0;
         int totalCreditHours = 0;
         
         for (Score score : scores) {
@@ -42,7 +59,7 @@ public class EligibilityService {
             // Check if status is FAIL (Grade Point is 0) to exclude failed courses from calculation if the assignment requires it.
             // NOTE: The standard CGPA calculation includes failed courses (Grade Point 0) unless retaken.
             // We use the recorded GradePoint regardless of status, as per CGPA definition.
-            totalGradePointsXCredits += score.getgradePoint() * credits;
+            totalGradePointsXCredits += Math.round(score.getgradePoint() * 100) * credits;
             totalCreditHours += credits;
         }
         
@@ -51,7 +68,7 @@ public class EligibilityService {
         }
         
         // Return rounded CGPA (in 2 decimal )
-        return Math.round((totalGradePointsXCredits / totalCreditHours) * 100.0) / 100.0;
+        return Math.round((double) totalGradePointsXCredits / totalCreditHours) / 100.0;
     }
 
     /**
@@ -62,7 +79,7 @@ public class EligibilityService {
     public int countFailedCourses(List<Score> scores) {
         // Filters scores where status is FAIL and counts them
         return (int) scores.stream()
-            .filter(score -> "FAIL".equalsIgnoreCase(score.getstatus()))
+            .filter(Score::isFail)
             .count();
     }
 
@@ -88,33 +105,143 @@ public class EligibilityService {
 
     /**
      * Processes all students, calculates their eligibility, and updates the student objects.
+     * Large lists are split into ranges and processed on the fork-join pool.
      * @param students List of all aggregated student objects.
      */
     public void processAllStudentEligibility(List<Student> students) {
+        if (students.size() < PARALLEL_THRESHOLD) {
+            processSerially(students);
+        } else {
+            processInParallel(students);
+        }
+    }
+
+    // the two paths processAllStudentEligibility chooses between (also run by EligibilityBenchmark)
+    void processSerially(List<Student> students) {
         for (Student student : students) {
+            processStudentEligibility(student);
+        }
+    }
 
-            // 1. Calculate CGPA
-            double cgpa = calculateCGPA(student.getScores());
-            student.setCurrentCGPA(cgpa);
-            
-            // 2. Calculate failed course count
-            int failedCount = countFailedCourses(student.getScores());
-            student.setFailedCourseCount(failedCount);
+    void processInParallel(List<Student> students) {
+        ForkJoinPool.commonPool().invoke(new EligibilityTask(students, 0, students.size()));
+    }
+
+    /**
+     * Recalculates CGPA and failed course count for a single student from all of their scores,
+     * rebuilding the running totals that later score changes update incrementally.
+     * @param student The student to update.
+     */
+    public void processStudentEligibility(Student student) {
+
+        // 1. Rebuild the credit-weighted sums and fail count
+        student.clearTotals();
+        for (Score score : student.getScores()) {
+            addToTotals(student, score);
         }
+
+        // 2. Cache the verdict
+        updateVerdict(student);
+    }
+
+
+
+    // --- Incremental Methods (O(1) per score change) ---
+
+    /**
+     * Adds one new score of the student to their running CGPA and fail count.
+     * @param student Owner of the score.
+     * @param score The score just attached to the student.
+     */
+    public void scoreAdded(Student student, Score score) {
+        addToTotals(student, score);
+        updateVerdict(student);
     }
 
     /**
-     * Gets a list of students who are ineligible to progress or have failed courses
-     * and therefore need a recovery plan.
-     * @param allStudents The master list of Student objects.
-     * @return List of Student objects requiring intervention.
+     * Changes a score of the student and moves their CGPA and fail count from the old result to the new one,
+     * without re-reading any of their other scores.
+     * @param student Owner of the score.
+     * @param score The score to change.
+     * @param change Modification applied to the score (grade point, status, ...).
      */
-    public List<Student> getStudentsNeedingRecovery(List<Student> allStudents) {
-        return allStudents.stream()
-            .filter(student -> !isEligibleToProgress(
-                                    student.getCurrentCGPA(),
-                                    student.getFailedCourseCount()) || student.getFailedCourseCount() > 0)
-            .collect(Collectors.toList());
+    public void updateScore(Student student, Score score, Consumer<Score> change) {
+        student.removeFromTotals(score.getgradePoint(), creditsOf(score), isFail(score));
+        change.accept(score);
+        addToTotals(student, score);
+        updateVerdict(student);
+    }
+
+    private void addToTotals(Student student, Score score) {
+        student.addToTotals(score.getgradePoint(), creditsOf(score), isFail(score));
+    }
+
+    private void updateVerdict(Student student) {
+        student.setEligibleToProgress(isEligibleToProgress(student.getCurrentCGPA(), student.getFailedCourseCount()));
+        if (student.needsRecovery()) {
+            needingRecovery.putIfAbsent(student.getStudentId(), student);
+        } else {
+            needingRecovery.remove(student.getStudentId(), student);
+        }
+    }
+
+    private int creditsOf(Score score) {
+        return courseCredits.getOrDefault(score.getcourseId(), 0);
+    }
+
+    private static boolean isFail(Score score) {
+        return score.isFail();
+    }
+
+    /**
+     * Gets the students who are ineligible to progress or have failed courses
+     * and therefore need a recovery plan. Read from the maintained set in O(result).
+     * @return Students requiring intervention, sorted by student ID.
+     */
+    public List<Student> getStudentsNeedingRecovery() {
+        return new ArrayList<>(needingRecovery.values());
+    }
+
+    /**
+     * Moves a student to their new ID in the needs-recovery set (call after the ID changed).
+     */
+    public void studentIdChanged(String oldStudentId, Student student) {
+        needingRecovery.remove(oldStudentId, student);
+        updateVerdict(student);
+    }
+
+    /**
+     * Drops a student deleted from the repository.
+     */
+    public void studentRemoved(Student student) {
+        needingRecovery.remove(student.getStudentId(), student);
+    }
+
+    // splits the student range in half until it is small enough, then processes it.
+    // Each student is written by exactly one task, so no locking is needed.
+    private class EligibilityTask extends RecursiveAction {
+        private final List<Student> students;
+        private final int from;
+        private final int to;
+
+        EligibilityTask(List<Student> students, int from, int to) {
+            this.students = students;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > MIN_BATCH_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new EligibilityTask(students, from, mid),
+                          new EligibilityTask(students, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                processStudentEligibility(students.get(i));
+            }
+        }
     }
 
 }
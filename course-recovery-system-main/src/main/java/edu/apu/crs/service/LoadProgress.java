@@ -0,0 +1,16 @@
+package edu.apu.crs.service;
+
+// Receives progress while the data files are loaded in the background.
+// Called on the loading thread: Swing code must hop to the EDT itself.
+
+public interface LoadProgress {
+
+    LoadProgress NONE = (percent, step) -> { };
+
+    /**
+     * @param percent 0 - 100
+     * @param step What is being loaded now, e.g. "Loading scores..."
+     */
+    void onProgress(int percent, String step);
+
+}
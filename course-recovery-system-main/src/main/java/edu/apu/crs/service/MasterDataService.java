@@ -1,31 +1,29 @@
 package edu.apu.crs.service;
 
-import edu.apu.crs.dataIO.CourseFileReader;
-import edu.apu.crs.models.Course;
 import edu.apu.crs.models.Student;
 import java.util.List;
 
 public class MasterDataService {
 
+    private final DataRepository repository;
     private final StudentDataService studentDataService;
     private final EligibilityService eligibilityService;
     private final List<Student> processedStudents; 
 
     public MasterDataService() {
+        this(DataRepository.getShared());
+    }
+
+    public MasterDataService(DataRepository repository) {
         System.out.println("Initializing Master Data Service...");
+        this.repository = repository;
+
+        // 1. Reuse the repository's course credits and eligibility results
+        this.eligibilityService = repository.getEligibilityService();
 
-        // 1. Load static Course data (needed for credits/CGPA)
-        List<Course> allCourses = CourseFileReader.readCourses();
-        
-        // 2. Initialize Services
-        this.eligibilityService = new EligibilityService(allCourses);
-        this.studentDataService = new StudentDataService();
-        
-        // 3. Load and Process Students
-        List<Student> allStudents = studentDataService.getAllStudents();
-        eligibilityService.processAllStudentEligibility(allStudents);
-        
-        this.processedStudents = allStudents;
+        // 2. Students are loaded and processed once by the repository
+        this.studentDataService = new StudentDataService(repository);
+        this.processedStudents = studentDataService.getAllStudents();
     }
 
     public List<Student> getAllProcessedStudents() {
@@ -33,11 +31,21 @@ public class MasterDataService {
     }
 
     public List<Student> getStudentsNeedingRecovery() {
-        return eligibilityService.getStudentsNeedingRecovery(processedStudents);
+        return eligibilityService.getStudentsNeedingRecovery();
     }
 
     public Student findStudentById(String studentId) {
         return studentDataService.findStudentById(studentId);
     }
 
+    /**
+     * Search-as-you-type over student ID, name and email (prefix, substring or near match).
+     * @param query Partial text, case is ignored.
+     * @param limit Maximum number of students returned.
+     * @return Best matches first.
+     */
+    public List<Student> searchStudents(String query, int limit) {
+        return repository.getSearchIndex().search(query, limit);
+    }
+
 }
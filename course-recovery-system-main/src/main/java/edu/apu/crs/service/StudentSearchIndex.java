@@ -0,0 +1,354 @@
+package edu.apu.crs.service;
+
+import edu.apu.crs.models.Student;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// In-memory search over student ID, name and email for the eligibility search box.
+// Everything is built once from the student list into sorted arrays:
+//  - keys: every distinct ID, full name, name word and email, sorted,
+//    so all keys starting with the query are one run found by binary search
+//  - trigram pairs (trigram << 32 | key) over IDs, name words and email user names:
+//    the keys containing every trigram of the query are found by intersecting a
+//    few sorted runs (substring search)
+//  - delete pairs (hash of the word minus one letter << 32 | key) over name words:
+//    a query with one typo shares an entry with the word it was meant to be
+// No query scans the student list. Results are ranked exact ID, ID prefix, name,
+// email, substring, then one-typo matches; ties in student ID order.
+//
+// The index is immutable; DataRepository drops it when students are added, removed or re-ID'd.
+
+public class StudentSearchIndex {
+
+    // match ranks, best first
+    private static final int EXACT_ID = 0;
+    private static final int ID_PREFIX = 1;
+    private static final int NAME_EXACT = 2;
+    private static final int NAME_PREFIX = 3;
+    private static final int EMAIL_PREFIX = 4;
+    private static final int SUBSTRING = 5;
+    private static final int TYPO = 6;
+
+    private static final byte KIND_ID = 0;
+    private static final byte KIND_NAME = 1;
+    private static final byte KIND_EMAIL = 2;
+
+    // each phase visits at most this many students per result wanted
+    private static final int VISIT_FACTOR = 4;
+    // shorter words have too many one-typo neighbours to be useful
+    private static final int TYPO_MIN_LENGTH = 4;
+
+    private final Student[] students;
+
+    private final String[] keys;      // distinct, sorted
+    private final int[] keyStart;     // owners of keys[k] are keyOwners[keyStart[k] .. keyStart[k + 1])
+    private final int[] keyOwners;
+    private final byte[] ownerKinds;  // what the key is for that owner (ID / name / email)
+
+    private final long[] trigramPairs;
+    private final long[] deletePairs;
+
+    public StudentSearchIndex(List<Student> studentList) {
+        this.students = studentList.toArray(new Student[0]);
+
+        // 1. group owners by key text
+        Map<String, KeyOwners> byText = new HashMap<>(students.length * 4);
+        for (int i = 0; i < students.length; i++) {
+            Student s = students[i];
+            String id = normalize(s.getStudentId());
+            String name = normalize(s.getStudentName());
+            String email = normalize(s.getEmail());
+
+            addKey(byText, id, i, KIND_ID);
+            addKey(byText, name, i, KIND_NAME);
+            if (name.indexOf(' ') >= 0) {
+                for (String word : name.split(" ")) addKey(byText, word, i, KIND_NAME);
+            }
+            // an email prefix also covers its user name, so the user name is no key of its own
+            addKey(byText, email, i, KIND_EMAIL);
+        }
+
+        // 2. sorted keys with their owners packed one after another
+        this.keys = byText.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+        this.keyStart = new int[keys.length + 1];
+        int total = 0;
+        for (int k = 0; k < keys.length; k++) {
+            keyStart[k] = total;
+            total += byText.get(keys[k]).size;
+        }
+        keyStart[keys.length] = total;
+        this.keyOwners = new int[total];
+        this.ownerKinds = new byte[total];
+        for (int k = 0; k < keys.length; k++) {
+            KeyOwners owners = byText.get(keys[k]);
+            System.arraycopy(owners.owners, 0, keyOwners, keyStart[k], owners.size);
+            System.arraycopy(owners.kinds, 0, ownerKinds, keyStart[k], owners.size);
+        }
+
+        // 3. trigrams (of the user name for emails) and one-letter deletions of name words;
+        //    full names are covered by their words
+        LongList trigrams = new LongList();
+        LongList deletes = new LongList();
+        for (int k = 0; k < keys.length; k++) {
+            String key = keys[k];
+            if (key.indexOf(' ') >= 0) continue;
+            for (int c = 0; c + 3 <= searchableLength(key); c++) {
+                trigrams.add(pair(trigram(key, c), k));
+            }
+            if (key.length() >= TYPO_MIN_LENGTH && isNameKey(k)) {
+                deletes.add(pair(key.hashCode(), k));
+                for (int c = 0; c < key.length(); c++) {
+                    deletes.add(pair(deleteHash(key, c), k));
+                }
+            }
+        }
+        this.trigramPairs = trigrams.sortedDistinct();
+        this.deletePairs = deletes.sortedDistinct();
+    }
+
+    public int size() {
+        return students.length;
+    }
+
+    /**
+     * Finds students whose ID, name or email starts with or contains the query,
+     * or whose name has a word one typo away from it. Case is ignored.
+     * @param query Text typed by the user, e.g. "s00", "tan", "alice@", "jhon".
+     * @param limit Maximum number of students returned.
+     * @return Best matches first, each student once.
+     */
+    public List<Student> search(String query, int limit) {
+        String q = normalize(query);
+        List<Student> result = new ArrayList<>();
+        if (q.isEmpty() || limit <= 0) return result;
+
+        Map<Integer, Integer> rankOf = new HashMap<>();
+        addPrefixMatches(q, limit, rankOf);
+        if (rankOf.size() < limit && q.length() >= 3 && isWord(q)) {
+            addSubstringMatches(q, limit, rankOf);
+        }
+        if (rankOf.size() < limit && q.length() >= TYPO_MIN_LENGTH && isWord(q)) {
+            addTypoMatches(q, limit, rankOf);
+        }
+
+        List<Integer> owners = new ArrayList<>(rankOf.keySet());
+        owners.sort(Comparator.comparingInt((Integer o) -> rankOf.get(o))
+                .thenComparing(o -> students[o].getStudentId()));
+        for (int i = 0; i < owners.size() && i < limit; i++) {
+            result.add(students[owners.get(i)]);
+        }
+        return result;
+    }
+
+    // keys starting with q are one contiguous run of the sorted array
+    private void addPrefixMatches(String q, int limit, Map<Integer, Integer> rankOf) {
+        int visited = 0;
+        for (int k = firstKeyAtLeast(q); k < keys.length && keys[k].startsWith(q); k++) {
+            boolean exact = keys[k].length() == q.length();
+            for (int o = keyStart[k]; o < keyStart[k + 1]; o++) {
+                int rank;
+                switch (ownerKinds[o]) {
+                    case KIND_ID:
+                        rank = exact ? EXACT_ID : ID_PREFIX;
+                        break;
+                    case KIND_NAME:
+                        rank = exact ? NAME_EXACT : NAME_PREFIX;
+                        break;
+                    default:
+                        rank = EMAIL_PREFIX;
+                        break;
+                }
+                offer(rankOf, keyOwners[o], rank);
+                // the exact key sorts first, so stopping early only drops more prefix matches
+                if (++visited >= limit * VISIT_FACTOR) return;
+            }
+        }
+    }
+
+    // keys holding every trigram of q, confirmed with contains()
+    private void addSubstringMatches(String q, int limit, Map<Integer, Integer> rankOf) {
+        int grams = q.length() - 2;
+        int[] from = new int[grams];
+        int[] to = new int[grams];
+        int shortest = 0;
+        for (int g = 0; g < grams; g++) {
+            long base = pair(trigram(q, g), 0);
+            from[g] = firstAtLeast(trigramPairs, base);
+            to[g] = firstAtLeast(trigramPairs, base + 0x1_0000_0000L);
+            if (from[g] == to[g]) return;
+            if (to[g] - from[g] < to[shortest] - from[shortest]) shortest = g;
+        }
+
+        int visited = 0;
+        for (int p = from[shortest]; p < to[shortest]; p++) {
+            int k = (int) trigramPairs[p];
+            boolean inAll = true;
+            for (int g = 0; g < grams && inAll; g++) {
+                if (g == shortest) continue;
+                long want = pair(trigram(q, g), k);
+                inAll = Arrays.binarySearch(trigramPairs, from[g], to[g], want) >= 0;
+            }
+            int at = keys[k].indexOf(q);
+            if (!inAll || at < 0 || at + q.length() > searchableLength(keys[k])) continue;
+            for (int o = keyStart[k]; o < keyStart[k + 1]; o++) {
+                offer(rankOf, keyOwners[o], SUBSTRING);
+                if (++visited >= limit * VISIT_FACTOR) return;
+            }
+        }
+    }
+
+    // symmetric delete: q and the word share q, the word, or a one-letter deletion of both
+    private void addTypoMatches(String q, int limit, Map<Integer, Integer> rankOf) {
+        List<Integer> candidates = new ArrayList<>();
+        collectKeys(deletePairs, q.hashCode(), candidates);
+        for (int c = 0; c < q.length(); c++) {
+            collectKeys(deletePairs, deleteHash(q, c), candidates);
+        }
+        int visited = 0;
+        for (int k : candidates) {
+            if (!withinOneTypo(q, keys[k])) continue;
+            for (int o = keyStart[k]; o < keyStart[k + 1]; o++) {
+                if (ownerKinds[o] != KIND_NAME) continue;
+                offer(rankOf, keyOwners[o], TYPO);
+                if (++visited >= limit * VISIT_FACTOR) return;
+            }
+        }
+    }
+
+    private static void collectKeys(long[] pairs, int hash, List<Integer> into) {
+        long base = pair(hash, 0);
+        for (int p = firstAtLeast(pairs, base); p < pairs.length && pairs[p] < base + 0x1_0000_0000L; p++) {
+            into.add((int) pairs[p]);
+        }
+    }
+
+    // b is a with one letter inserted, removed or replaced, or two neighbours swapped
+    private static boolean withinOneTypo(String a, String b) {
+        int la = a.length(), lb = b.length();
+        if (Math.abs(la - lb) > 1) return false;
+        int i = 0;
+        while (i < la && i < lb && a.charAt(i) == b.charAt(i)) i++;
+        if (i == la || i == lb) return true;
+        if (la == lb) {
+            if (a.regionMatches(i + 1, b, i + 1, la - i - 1)) return true;
+            return i + 1 < la && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                    && a.regionMatches(i + 2, b, i + 2, la - i - 2);
+        }
+        return la > lb
+                ? a.regionMatches(i + 1, b, i, lb - i)
+                : b.regionMatches(i + 1, a, i, la - i);
+    }
+
+    // lower bound, so every key equal to or starting with q is walked
+    private int firstKeyAtLeast(String q) {
+        int lo = 0, hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(q) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int firstAtLeast(long[] values, long value) {
+        int lo = 0, hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private boolean isNameKey(int k) {
+        for (int o = keyStart[k]; o < keyStart[k + 1]; o++) {
+            if (ownerKinds[o] == KIND_NAME) return true;
+        }
+        return false;
+    }
+
+    private static void offer(Map<Integer, Integer> rankOf, int owner, int rank) {
+        rankOf.merge(owner, rank, Math::min);
+    }
+
+    private static void addKey(Map<String, KeyOwners> byText, String text, int owner, byte kind) {
+        if (!text.isEmpty()) byText.computeIfAbsent(text, t -> new KeyOwners()).add(owner, kind);
+    }
+
+    // part of a key that substring search looks at: emails up to the '@'
+    private static int searchableLength(String key) {
+        int at = key.indexOf('@');
+        return at < 0 ? key.length() : at;
+    }
+
+    private static boolean isWord(String text) {
+        return text.indexOf(' ') < 0 && text.indexOf('@') < 0;
+    }
+
+    // collisions only cost a failed contains() / typo check
+    private static int trigram(String text, int from) {
+        return (text.charAt(from) * 31 + text.charAt(from + 1)) * 31 + text.charAt(from + 2);
+    }
+
+    // String.hashCode() of the text without the character at index skip
+    private static int deleteHash(String text, int skip) {
+        int h = 0;
+        for (int c = 0; c < text.length(); c++) {
+            if (c != skip) h = 31 * h + text.charAt(c);
+        }
+        return h;
+    }
+
+    private static long pair(int hash, int key) {
+        return ((long) hash << 32) | (key & 0xFFFF_FFFFL);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // owners of one key text while building
+    private static final class KeyOwners {
+        int[] owners = new int[1];
+        byte[] kinds = new byte[1];
+        int size;
+
+        void add(int owner, byte kind) {
+            // "tan tan": one student, one entry
+            if (size > 0 && owners[size - 1] == owner) return;
+            if (size == owners.length) {
+                owners = Arrays.copyOf(owners, size * 2);
+                kinds = Arrays.copyOf(kinds, size * 2);
+            }
+            owners[size] = owner;
+            kinds[size++] = kind;
+        }
+    }
+
+    // growable long array
+    private static final class LongList {
+        long[] values = new long[1024];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        long[] sortedDistinct() {
+            Arrays.sort(values, 0, size);
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (n == 0 || values[i] != values[n - 1]) values[n++] = values[i];
+            }
+            return Arrays.copyOf(values, n);
+        }
+    }
+
+}
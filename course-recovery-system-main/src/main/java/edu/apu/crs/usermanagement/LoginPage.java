@@ -8,14 +8,14 @@ import java.awt.*;
 // import java.awt.event.ActionEvent;
 // import java.awt.event.ActionListener;
 import javax.swing.border.EmptyBorder;
+import java.util.concurrent.ExecutionException;
 
 public class LoginPage extends JFrame {
 
+    // loaded in the background, null until then (Login / Forgot Password stay disabled)
     private systemUserService userService;
 
     public LoginPage() {
-        this.userService = new systemUserService();
-
         setTitle("Login to Course Recovery System");
         setSize(400, 250);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -66,9 +66,37 @@ public class LoginPage extends JFrame {
         gbc.weightx = 1.0;
         gbc.anchor = GridBagConstraints.CENTER;
         panel.add(buttonPanel, gbc);
+
+        // --- Row 4: Loading status
+        JLabel statusLabel = new JLabel("Loading users...", SwingConstants.CENTER);
+        gbc.gridy = 3;
+        panel.add(statusLabel, gbc);
         
         add(panel);
 
+        // read the user file off the EDT so the window paints immediately
+        loginButton.setEnabled(false);
+        forgotPassButton.setEnabled(false);
+        new SwingWorker<systemUserService, Void>() {
+            @Override
+            protected systemUserService doInBackground() {
+                return new systemUserService();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    userService = get();
+                    statusLabel.setText(" ");
+                    loginButton.setEnabled(true);
+                    forgotPassButton.setEnabled(true);
+                } catch (InterruptedException | ExecutionException ex) {
+                    ex.printStackTrace();
+                    statusLabel.setText("Error loading users.");
+                }
+            }
+        }.execute();
+
         // --- Login Action ---
         loginButton.addActionListener(e -> {
             String input = userText.getText().trim();
@@ -9,13 +9,21 @@ import java.io.FileOutputStream; // For binary logging (Phase III, Step 10)
 import java.io.IOException;
 //import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 public class systemUserService {
 
     // List holds the abstract class SystemUser (Polymorphism)
     private List<systemUser> users;
 
+    // Case-insensitive lookup indexes over the same users (keys are lower-cased)
+    private final Map<String, systemUser> usersByUsername = new HashMap<>();
+    private final Map<String, systemUser> usersByUserID = new HashMap<>();
+    private final Map<String, systemUser> usersByEmail = new HashMap<>();
+
     // Path for binary logging file (Phase III, Step 10)
     private static final String LOG_FILE = "logs/login_timestamps.dat";
 
@@ -23,21 +31,26 @@ public class systemUserService {
         // REFACTOR: Remove ALL hardcoded users and load from file instead
         System.out.println("Loading System Users from file...");
         this.users = SystemUserFileReader.readAllUsers();
+        for (systemUser u : users) {
+            indexUser(u);
+        }
         System.out.println("Loaded " + this.users.size() + " system users.");
     }
 
     
     
     public systemUser login(String input, String password) {
-        // Polymorphism: iterating over the abstract SystemUser list to find the
-        // concrete subclass
-        for (systemUser u : users) {
-            boolean nameMatch = u.getUsername().equalsIgnoreCase(input);
-            boolean idMatch = u.getUserID().equalsIgnoreCase(input);
+        // Polymorphism: the index returns the abstract SystemUser, whatever the concrete subclass
+        if (input == null) return null;
+        String key = indexKey(input);
 
-            if ((nameMatch || idMatch) && u.getPassword().equals(password) && u.isActive()) {
-                return u;
-            }
+        systemUser byName = usersByUsername.get(key);
+        if (byName != null && byName.getPassword().equals(password) && byName.isActive()) {
+            return byName;
+        }
+        systemUser byId = usersByUserID.get(key);
+        if (byId != null && byId.getPassword().equals(password) && byId.isActive()) {
+            return byId;
         }
         return null;
     }
@@ -94,11 +107,18 @@ public class systemUserService {
         }
         if (newUser != null) {
             users.add(newUser);
+            indexUser(newUser);
         }
     }
 
     public boolean removeUser(String username) {
-        return users.removeIf(u -> u.getUsername().equalsIgnoreCase(username));
+        systemUser u = findUser(username);
+        if (u == null) {
+            return false;
+        }
+        users.remove(u);
+        unindexUser(u);
+        return true;
     }
 
     /**
@@ -108,12 +128,8 @@ public class systemUserService {
      * @return The SystemUser object, or null if not found.
      */
     public systemUser findUser(String username) {
-        for (systemUser u : users) {
-            if (u.getUsername().equalsIgnoreCase(username)) {
-                return u;
-            }
-        }
-        return null;
+        if (username == null) return null;
+        return usersByUsername.get(indexKey(username));
     }
 
     
@@ -126,6 +142,24 @@ public class systemUserService {
         return false;
     }
 
+    /**
+     * Changes a user's email and keeps the email index in step.
+     *
+     * @param username The user to update.
+     * @param newEmail The new email address.
+     * @return true if the user was found and updated.
+     */
+    public boolean updateEmail(String username, String newEmail) {
+        systemUser u = findUser(username);
+        if (u != null) {
+            unindexUser(u);
+            u.setEmail(newEmail);
+            indexUser(u);
+            return true;
+        }
+        return false;
+    }
+
     // The rest of the User Management methods...
     public boolean deactivateUser(String username) {
         systemUser u = findUser(username);
@@ -160,12 +194,25 @@ public class systemUserService {
 
     // find user email ( for password recovery )
     public systemUser findUserByEmail(String email) {
-        for (systemUser u : users) {
-            if (u.getEmail().equalsIgnoreCase(email)) {
-                return u;
-            }
-        }
-        return null;
+        if (email == null) return null;
+        return usersByEmail.get(indexKey(email));
+    }
+
+    // Index helpers: the first user loaded for a key wins, like the old list scan
+    private void indexUser(systemUser u) {
+        if (u.getUsername() != null) usersByUsername.putIfAbsent(indexKey(u.getUsername()), u);
+        if (u.getUserID() != null) usersByUserID.putIfAbsent(indexKey(u.getUserID()), u);
+        if (u.getEmail() != null) usersByEmail.putIfAbsent(indexKey(u.getEmail()), u);
+    }
+
+    private void unindexUser(systemUser u) {
+        if (u.getUsername() != null) usersByUsername.remove(indexKey(u.getUsername()), u);
+        if (u.getUserID() != null) usersByUserID.remove(indexKey(u.getUserID()), u);
+        if (u.getEmail() != null) usersByEmail.remove(indexKey(u.getEmail()), u);
+    }
+
+    private static String indexKey(String value) {
+        return value.toLowerCase(Locale.ROOT);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package edu.apu.crs.dataIO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.apu.crs.models.Score;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ScoreFileReaderTest {
+
+    private static final String[] GRADES = {"A+", "A", "B+", "B", "C+", "C", "D", "F", "AU"};
+
+    @TempDir
+    File dir;
+
+    @Test
+    void parallelChunksGiveTheSequentialRowsInOrder() throws Exception {
+        File file = writeScores(3_000, true);
+        List<String> expected = rows(ScoreFileReader.readScoresSequentially(file));
+        assertEquals(3_000, expected.size());
+
+        // split points fall mid-line; every chunk count must give the same rows in the same order
+        for (int chunks : new int[] {1, 2, 7, 64, 999, 5_000}) {
+            assertEquals(expected, rows(ScoreFileReader.readScoresParallel(file, chunks)), chunks + " chunks");
+        }
+    }
+
+    @Test
+    void lastLineWithoutNewlineIsRead() throws Exception {
+        File file = writeScores(500, false);
+        List<String> expected = rows(ScoreFileReader.readScoresSequentially(file));
+        assertEquals(500, expected.size());
+
+        for (int chunks : new int[] {3, 17, 500}) {
+            assertEquals(expected, rows(ScoreFileReader.readScoresParallel(file, chunks)), chunks + " chunks");
+        }
+    }
+
+    // stuScore rows with varying line lengths, a few blank and CRLF lines in between
+    private File writeScores(int count, boolean trailingNewline) throws Exception {
+        Random random = new Random(count);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(i % 97 == 0 ? "\r\n" : "\n");
+            if (i % 211 == 0) sb.append("\n");
+            int g = random.nextInt(GRADES.length);
+            sb.append("S").append(random.nextInt(100_000)).append(',')
+              .append("C").append(String.format("%03d", random.nextInt(40))).append(',')
+              .append(1 + random.nextInt(3)).append(',')
+              .append(1 + random.nextInt(6)).append(',')
+              .append(random.nextInt(101)).append(',')
+              .append(random.nextInt(101)).append(',')
+              .append(random.nextInt(41) / 10.0).append(',')
+              .append(GRADES[g]).append(',')
+              .append(g < 7 ? "PASS" : "FAIL");
+        }
+        if (trailingNewline) sb.append("\n");
+
+        File file = new File(dir, "stuScore.txt");
+        Files.write(file.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> rows(List<Score> scores) {
+        List<String> rows = new ArrayList<>(scores.size());
+        for (Score s : scores) {
+            rows.add(s.getstudentId() + "," + s.getcourseId() + "," + s.getattempt() + "," + s.getsemester() + ","
+                    + s.getassignmentScore() + "," + s.getexamScore() + "," + s.getgradePoint() + ","
+                    + s.getgrade() + "," + s.getstatus());
+        }
+        return rows;
+    }
+
+}
@@ -0,0 +1,40 @@
+package edu.apu.crs.dataIO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.apu.crs.models.Score;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ScoreHistoryStoreTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void attemptsSurviveAReloadWithTheirLabels() throws Exception {
+        File file = new File(dir, "stuScoreHistory.bin");
+        ScoreHistoryStore writer = new ScoreHistoryStore(file);
+        writer.append(Arrays.asList(
+                new Score("S001", "C003", 1, 1, 30, 20, "F", 0.0, "FAIL"),
+                new Score("S001", "C003", 2, 1, 0, 0, "AU", 0.0, "WITHDRAWN")));
+        // a second segment that only adds rows
+        writer.append(Collections.singletonList(new Score("S001", "C003", 3, 2, 70, 72, "B+", 3.3, "PASS")));
+
+        ScoreHistoryStore reader = new ScoreHistoryStore(file);
+        reader.load();
+        List<Score> attempts = reader.attemptsOf("S001", "C003");
+        assertEquals(3, attempts.size());
+        assertEquals("F", attempts.get(0).getgrade());
+        assertEquals("FAIL", attempts.get(0).getstatus());
+        assertEquals("AU", attempts.get(1).getgrade());
+        assertEquals("WITHDRAWN", attempts.get(1).getstatus());
+        assertEquals(3, attempts.get(2).getattempt());
+        assertEquals("B+", attempts.get(2).getgrade());
+    }
+
+}
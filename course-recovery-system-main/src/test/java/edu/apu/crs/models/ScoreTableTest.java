@@ -0,0 +1,89 @@
+package edu.apu.crs.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ScoreTableTest {
+
+    @Test
+    void rowsRoundTrip() {
+        ScoreTable table = new ScoreTable();
+        table.add(new Score("S001", "C003", 2, 1, 70, 72, "B+", 3.3, "PASS"));
+
+        Score row = table.toScore(0);
+        assertEquals("S001", row.getstudentId());
+        assertEquals("C003", row.getcourseId());
+        assertEquals(2, row.getattempt());
+        assertEquals(70, row.getassignmentScore());
+        assertEquals(72, row.getexamScore());
+        assertEquals("B+", row.getgrade());
+        assertEquals(3.3, row.getgradePoint(), 0.0);
+        assertEquals(ScoreStatus.PASS, row.getStatusValue());
+    }
+
+    @Test
+    void outOfRangeValuesAreRejectedNotClamped() {
+        ScoreTable table = new ScoreTable();
+        assertThrows(IllegalArgumentException.class,
+                () -> table.add(new Score("S001", "C003", 1, 1, 256, 72, "B+", 3.3, "PASS")));
+        assertThrows(IllegalArgumentException.class,
+                () -> table.add(new Score("S001", "C003", -1, 1, 70, 72, "B+", 3.3, "PASS")));
+
+        // nothing half-added
+        assertEquals(0, table.size());
+        assertEquals(0, table.getStudentIds().size());
+    }
+
+    @Test
+    void unknownGradeAndStatusLabelsAreKeptWordForWord() {
+        ScoreTable table = new ScoreTable();
+        table.add(new Score("S001", "C003", 1, 1, 0, 0, "AU", 0.0, "WITHDRAWN"));
+        table.add(new Score("S001", "C003", 2, 1, 0, 0, "", 0.0, ""));
+        table.add(new Score("S001", "C003", 3, 1, 70, 72, "b+", 3.3, "fail"));
+
+        List<Score> attempts = table.attemptsOf("S001", "C003");
+        assertEquals("AU", attempts.get(0).getgrade());
+        assertEquals("WITHDRAWN", attempts.get(0).getstatus());
+        assertEquals("", attempts.get(1).getgrade());
+        assertEquals("", attempts.get(1).getstatus());
+        // known labels are stored as their enum code
+        assertEquals("B+", attempts.get(2).getgrade());
+        assertEquals("FAIL", attempts.get(2).getstatus());
+        assertTrue(table.isFail(2));
+        assertEquals(Arrays.asList("AU", "WITHDRAWN"), table.getOtherLabels());
+    }
+
+    @Test
+    void courseOrdinalsOutsideTheCharColumnAreRejected() {
+        ScoreTable table = new ScoreTable();
+        assertThrows(IllegalArgumentException.class,
+                () -> table.addEncoded(0, Character.MAX_VALUE + 1, 0, (short) 0, (byte) -1, (byte) -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> table.addEncoded(0, -1, 0, (short) 0, (byte) -1, (byte) -1));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void attemptsOfUsesTheStudentIndexAcrossTruncate() {
+        ScoreTable table = new ScoreTable();
+        for (int i = 0; i < 100; i++) {
+            table.add(new Score("S" + (i % 7), "C" + (i % 3), i, 1, 50, 50, "C", 2.3, "PASS"));
+        }
+        List<Score> attempts = table.attemptsOf("S1", "C1");
+        assertEquals(5, attempts.size());
+        assertEquals(1, attempts.get(0).getattempt());
+        assertEquals(85, attempts.get(4).getattempt());
+
+        table.truncate(50, 7, 3, 0);
+        assertEquals(3, table.attemptsOf("S1", "C1").size());
+
+        table.add(new Score("S1", "C1", 99, 1, 50, 50, "C", 2.3, "PASS"));
+        assertEquals(99, table.attemptsOf("S1", "C1").get(3).getattempt());
+    }
+
+}
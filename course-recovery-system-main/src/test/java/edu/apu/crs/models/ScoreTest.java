@@ -0,0 +1,40 @@
+package edu.apu.crs.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ScoreTest {
+
+    @Test
+    void statusLabelsAreKeptAsRead() {
+        Score unknown = new Score("S001", "C003", 1, 1, 0, 0, "F", 0.0, "WITHDRAWN");
+        assertEquals("WITHDRAWN", unknown.getstatus());
+        assertNull(unknown.getStatusValue());
+        assertFalse(unknown.isFail());
+
+        Score lowerCase = new Score("S001", "C003", 1, 1, 0, 0, "F", 0.0, "fail");
+        assertEquals("fail", lowerCase.getstatus());
+        assertEquals(ScoreStatus.FAIL, lowerCase.getStatusValue());
+        assertTrue(lowerCase.isFail());
+
+        assertEquals("PASS", new Score("S001", "C003", 1, 1, 0, 0, "A", 4.0, "PASS").getstatus());
+        assertEquals("", new Score("S001", "C003", 1, 1, 0, 0, "A", 4.0, "").getstatus());
+    }
+
+    @Test
+    void settingAStatusReplacesTheLabel() {
+        Score score = new Score("S001", "C003", 1, 1, 0, 0, "F", 0.0, "WITHDRAWN");
+        score.setgradePoint(3.0);
+        score.updateStatus();
+        assertEquals("PASS", score.getstatus());
+
+        Score copy = new Score("S001", "C003", 1, 1, 0, 0, "F", 0.0, "PASS");
+        copy.copyResultFrom(new Score("S001", "C003", 2, 1, 0, 0, "F", 0.0, "Absent"));
+        assertEquals("Absent", copy.getstatus());
+    }
+
+}
@@ -0,0 +1,263 @@
+package edu.apu.crs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import edu.apu.crs.dataIO.TextDataStore;
+import edu.apu.crs.models.Course;
+import edu.apu.crs.models.CourseRecoveryPlan;
+import edu.apu.crs.models.Milestone;
+import edu.apu.crs.models.Student;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Several officers working at once: writers share DataRepository.studentLock stripes,
+// readers never take them. Runs on a scratch copy of the data folder (crs.data.dir,
+// set by surefire), so src/main/resources/data is never touched.
+
+class CourseRecoveryConcurrencyTest {
+
+    private static final File SEED_DATA = new File("src/main/resources/data");
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 20;
+    private static final int EXAM_EVERY = 5;
+    private static final int PLANS = 6;
+    private static final int CUSTOM_WEEK_BASE = 1000;
+
+    private DataRepository repository;
+    private CourseRecoveryService service;
+
+    @BeforeEach
+    void copySeedData() throws IOException {
+        String dir = System.getProperty("crs.data.dir");
+        assumeTrue(dir != null, "crs.data.dir is not set (run through Maven)");
+
+        File dataDir = new File(dir);
+        deleteTree(dataDir);
+        assertTrue(dataDir.mkdirs(), "cannot create " + dataDir);
+        File[] seeds = SEED_DATA.listFiles((d, name) -> name.endsWith(".txt"));
+        assertTrue(seeds != null && seeds.length > 0, "no seed data in " + SEED_DATA);
+        for (File seed : seeds) {
+            Files.copy(seed.toPath(), new File(dataDir, seed.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        repository = new DataRepository(new TextDataStore(), LoadProgress.NONE);
+        service = new CourseRecoveryService(repository);
+    }
+
+    @Test
+    void concurrentWritersLoseNoUpdates() throws Exception {
+        List<PlanRef> plans = createPlans();
+        int[] attemptsBefore = new int[plans.size()];
+        for (int p = 0; p < plans.size(); p++) {
+            attemptsBefore[p] = repository.getLatestScore(plans.get(p).studentId, plans.get(p).courseId).getattempt();
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                writers.add(pool.submit(() -> {
+                    start.await();
+                    for (int r = 0; r < ROUNDS; r++) {
+                        for (PlanRef plan : plans) {
+                            // each thread owns one plan week and its own custom weeks
+                            service.updateMilestoneStatus(plan.planId, plan.courseId, thread + 1, status(thread, r));
+                            service.upsertCustomMilestone(plan.planId, plan.courseId, customWeek(thread, r), "task " + thread + "/" + r);
+                            if (r % EXAM_EVERY == 0) {
+                                // 0.0 keeps the course failed, so the plan stays in the recovery list
+                                service.recordRecoveryExamResult(plan.studentId, plan.courseId, 0.0);
+                            }
+                        }
+                        if (r % 10 == thread % 10) {
+                            service.saveRecoveryPlans();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            // a reader running alongside must see consistent lists the whole time
+            Future<Integer> reader = pool.submit(() -> {
+                start.await();
+                int reads = 0;
+                while (!allDone(writers)) {
+                    for (PlanRef plan : plans) {
+                        assertEquals(plan.weekCount, service.getRecoveryPlanEntries(plan.studentId, plan.courseId).size());
+                        service.getMilestonesForPlan(plan.planId, plan.courseId);
+                        repository.getLatestScore(plan.studentId, plan.courseId);
+                        reads++;
+                    }
+                }
+                return reads;
+            });
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(2, TimeUnit.MINUTES);
+            }
+            assertTrue(reader.get(1, TimeUnit.MINUTES) > 0);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        service.saveRecoveryPlans();
+        service.saveCustomMilestones();
+
+        assertFinalState(service, repository, plans, attemptsBefore);
+
+        // and the same again from what was written to disk
+        DataRepository reloadedRepository = new DataRepository(new TextDataStore(), LoadProgress.NONE);
+        CourseRecoveryService reloaded = new CourseRecoveryService(reloadedRepository);
+        assertFinalState(reloaded, reloadedRepository, plans, attemptsBefore);
+    }
+
+    @Test
+    void readersFinishWhileAWriterHoldsTheStripe() throws Exception {
+        PlanRef plan = createPlans().get(0);
+        Object stripe = repository.studentLock(plan.studentId);
+
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            synchronized (stripe) {
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "stripe-holder");
+        writer.start();
+
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        try {
+            assertTrue(held.await(10, TimeUnit.SECONDS));
+
+            List<Future<?>> reads = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                reads.add(readers.submit(() -> {
+                    for (int n = 0; n < 200; n++) {
+                        assertFalse(service.getRecoveryPlanEntries(plan.studentId, plan.courseId).isEmpty());
+                        assertFalse(service.getMilestonesForPlan(plan.planId, plan.courseId).isEmpty());
+                        assertTrue(repository.getLatestScore(plan.studentId, plan.courseId) != null);
+                        assertFalse(service.getFailedCoursesForStudent(plan.studentId).isEmpty());
+                        repository.getStudent(plan.studentId).getCurrentCGPA();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> read : reads) {
+                read.get(10, TimeUnit.SECONDS);
+            }
+
+            // the stripe was held the whole time
+            assertTrue(writer.isAlive());
+            assertEquals(1, release.getCount());
+        } finally {
+            release.countDown();
+            writer.join();
+            readers.shutdownNow();
+        }
+    }
+
+    // one plan (with at least weeks 1..THREADS) for each of the first PLANS failed student/course pairs
+    private List<PlanRef> createPlans() {
+        List<PlanRef> plans = new ArrayList<>();
+        for (Student student : service.getStudentsWithFailedCourses()) {
+            for (Course course : service.getFailedCoursesForStudent(student.getStudentId())) {
+                if (plans.size() == PLANS) break;
+                String planId = service.getOrCreateRecoveryPlan(student.getStudentId(), course.getCourseId()).getPlanId();
+                for (int week = 1; week <= THREADS; week++) {
+                    service.getOrCreatePlanWeek(planId, student.getStudentId(), course.getCourseId(), week);
+                }
+                int weekCount = service.getRecoveryPlanEntries(student.getStudentId(), course.getCourseId()).size();
+                plans.add(new PlanRef(planId, student.getStudentId(), course.getCourseId(), weekCount));
+            }
+        }
+        assumeTrue(!plans.isEmpty(), "seed data has no failed courses");
+        return plans;
+    }
+
+    private static void assertFinalState(CourseRecoveryService service, DataRepository repository,
+                                         List<PlanRef> plans, int[] attemptsBefore) {
+        for (int p = 0; p < plans.size(); p++) {
+            PlanRef plan = plans.get(p);
+
+            List<CourseRecoveryPlan> weeks = service.getRecoveryPlanEntries(plan.studentId, plan.courseId);
+            assertEquals(plan.weekCount, weeks.size(), plan.planId);
+            for (CourseRecoveryPlan week : weeks) {
+                int thread = week.getStudyWeek() - 1;
+                if (thread >= THREADS) continue;
+                assertEquals(status(thread, ROUNDS - 1), week.getStatus(), plan.planId + " week " + week.getStudyWeek());
+            }
+
+            int custom = 0;
+            for (Milestone m : service.getMilestonesForPlan(plan.planId, plan.courseId)) {
+                if (m.getStudyWeek() >= CUSTOM_WEEK_BASE) custom++;
+            }
+            assertEquals(THREADS * ROUNDS, custom, plan.planId);
+
+            int exams = THREADS * ((ROUNDS + EXAM_EVERY - 1) / EXAM_EVERY);
+            assertEquals(attemptsBefore[p] + exams,
+                    repository.getLatestScore(plan.studentId, plan.courseId).getattempt(), plan.planId);
+        }
+    }
+
+    private static String status(int thread, int round) {
+        return "T" + thread + "-R" + round;
+    }
+
+    private static int customWeek(int thread, int round) {
+        return CUSTOM_WEEK_BASE + thread * ROUNDS + round;
+    }
+
+    private static boolean allDone(List<Future<?>> futures) {
+        for (Future<?> f : futures) {
+            if (!f.isDone()) return false;
+        }
+        return true;
+    }
+
+    private static void deleteTree(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteTree(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static final class PlanRef {
+        final String planId;
+        final String studentId;
+        final String courseId;
+        final int weekCount;
+
+        PlanRef(String planId, String studentId, String courseId, int weekCount) {
+            this.planId = planId;
+            this.studentId = studentId;
+            this.courseId = courseId;
+            this.weekCount = weekCount;
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+package edu.apu.crs.service;
+
+import edu.apu.crs.models.Student;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Serial vs fork-join eligibility processing (EligibilityService.PARALLEL_THRESHOLD
+// is where the fork-join path starts to win). Run with:
+//   mvn -Pjmh test-compile exec:exec -Djmh.include=EligibilityBenchmark
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EligibilityBenchmark {
+
+    @Param({"500", "1000", "2000", "5000", "100000"})
+    public int students;
+
+    private EligibilityService service;
+    private List<Student> studentList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new EligibilityService(SyntheticStudents.courses());
+        studentList = SyntheticStudents.students(students, 42L);
+    }
+
+    @Benchmark
+    public List<Student> serial() {
+        service.processSerially(studentList);
+        return studentList;
+    }
+
+    @Benchmark
+    public List<Student> forkJoin() {
+        service.processInParallel(studentList);
+        return studentList;
+    }
+
+}
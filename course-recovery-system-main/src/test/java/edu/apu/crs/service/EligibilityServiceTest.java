@@ -0,0 +1,57 @@
+package edu.apu.crs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import edu.apu.crs.models.Student;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class EligibilityServiceTest {
+
+    @Test
+    void parallelVerdictsEqualSerialOnes() {
+        List<Student> serialStudents = SyntheticStudents.students(20_000, 42L);
+        List<Student> parallelStudents = SyntheticStudents.students(20_000, 42L);
+
+        EligibilityService serial = new EligibilityService(SyntheticStudents.courses());
+        EligibilityService parallel = new EligibilityService(SyntheticStudents.courses());
+        serial.processSerially(serialStudents);
+        parallel.processInParallel(parallelStudents);
+
+        for (int i = 0; i < serialStudents.size(); i++) {
+            Student expected = serialStudents.get(i);
+            Student actual = parallelStudents.get(i);
+            assertEquals(expected.getCurrentCGPA(), actual.getCurrentCGPA(), 0.0, expected.getStudentId());
+            assertEquals(expected.getFailedCourseCount(), actual.getFailedCourseCount(), expected.getStudentId());
+            assertEquals(expected.isEligibleToProgress(), actual.isEligibleToProgress(), expected.getStudentId());
+        }
+        assertEquals(ids(serial.getStudentsNeedingRecovery()), ids(parallel.getStudentsNeedingRecovery()));
+        assertFalse(serial.getStudentsNeedingRecovery().isEmpty());
+    }
+
+    @Test
+    void largeListsTakeTheParallelPathWithTheSameResult() {
+        List<Student> students = SyntheticStudents.students(5_000, 7L);
+        List<Student> expected = SyntheticStudents.students(5_000, 7L);
+
+        EligibilityService service = new EligibilityService(SyntheticStudents.courses());
+        EligibilityService reference = new EligibilityService(SyntheticStudents.courses());
+        service.processAllStudentEligibility(students);
+        for (Student student : expected) {
+            reference.processStudentEligibility(student);
+        }
+
+        assertEquals(ids(reference.getStudentsNeedingRecovery()), ids(service.getStudentsNeedingRecovery()));
+    }
+
+    private static List<String> ids(List<Student> students) {
+        List<String> ids = new ArrayList<>(students.size());
+        for (Student student : students) {
+            ids.add(student.getStudentId());
+        }
+        return ids;
+    }
+
+}
@@ -0,0 +1,59 @@
+package edu.apu.crs.service;
+
+import edu.apu.crs.models.Course;
+import edu.apu.crs.models.Score;
+import edu.apu.crs.models.Student;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Generated students and scores for tests and benchmarks. The same seed always
+// gives the same data, so two calls can be compared row for row.
+
+final class SyntheticStudents {
+
+    static final int COURSE_COUNT = 40;
+
+    private static final String[] GRADES = {"A+", "A", "B+", "B", "C+", "C", "D", "F"};
+    private static final double[] GRADE_POINTS = {4.0, 3.7, 3.3, 3.0, 2.7, 2.3, 2.0, 0.0};
+
+    private SyntheticStudents() {
+    }
+
+    static List<Course> courses() {
+        List<Course> courses = new ArrayList<>(COURSE_COUNT);
+        for (int c = 0; c < COURSE_COUNT; c++) {
+            courses.add(new Course(courseId(c), "Course " + c, 3 + c % 2, 1 + c % 3));
+        }
+        return courses;
+    }
+
+    /**
+     * @param count Number of students, each with 6 to 12 scores.
+     */
+    static List<Student> students(int count, long seed) {
+        Random random = new Random(seed);
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = String.format("S%06d", i);
+            Student student = new Student(id, "Student " + i, id + "@student.edu", "P001", 1 + random.nextInt(3));
+
+            int scoreCount = 6 + random.nextInt(7);
+            List<Score> scores = new ArrayList<>(scoreCount);
+            for (int k = 0; k < scoreCount; k++) {
+                int g = random.nextInt(GRADES.length);
+                scores.add(new Score(id, courseId(random.nextInt(COURSE_COUNT)), 1, 1 + k / 4,
+                        random.nextInt(101), random.nextInt(101), GRADES[g], GRADE_POINTS[g],
+                        GRADE_POINTS[g] >= 2.0 ? "PASS" : "FAIL"));
+            }
+            student.addScores(scores);
+            students.add(student);
+        }
+        return students;
+    }
+
+    private static String courseId(int c) {
+        return String.format("C%03d", c);
+    }
+
+}